@@ -0,0 +1,97 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Gerador de carga simples para o benchmark-threads.sh (sem dependências: java bench/LoadTest.java ...).
+ *
+ * Uso: java bench/LoadTest.java <concorrência> <segundos> <url> [url...]
+ * Cada cliente virtual faz GETs em sequência, alternando entre as URLs, até acabar o tempo.
+ * Saída (uma linha): requisições/s, p50, p99 e máximo em ms, e total de erros (status >= 400 ou falha).
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Uso: java bench/LoadTest.java <concorrência> <segundos> <url> [url...]");
+            System.exit(2);
+        }
+        int concurrency = Integer.parseInt(args[0]);
+        long seconds = Long.parseLong(args[1]);
+        List<URI> uris = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) uris.add(URI.create(args[i]));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int c = 0; c < concurrency; c++) {
+                int offset = c;
+                futures.add(clients.submit(() -> run(client, uris, offset, deadline)));
+            }
+            Result total = new Result();
+            for (Future<Result> f : futures) total.add(f.get());
+            total.print(seconds);
+        }
+    }
+
+    private static Result run(HttpClient client, List<URI> uris, int offset, long deadline) {
+        Result r = new Result();
+        for (int i = offset; System.nanoTime() < deadline; i++) {
+            HttpRequest req = HttpRequest.newBuilder(uris.get(i % uris.size()))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> resp = client.send(req, HttpResponse.BodyHandlers.discarding());
+                r.record(System.nanoTime() - start, resp.statusCode() >= 400);
+            } catch (Exception e) {
+                r.record(System.nanoTime() - start, true);
+            }
+        }
+        return r;
+    }
+
+    private static final class Result {
+        long[] latencies = new long[1024];
+        int count;
+        int errors;
+
+        void record(long nanos, boolean error) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+            if (error) errors++;
+        }
+
+        void add(Result other) {
+            for (int i = 0; i < other.count; i++) record(other.latencies[i], false);
+            errors += other.errors;
+        }
+
+        void print(long seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("req/s=%.1f p50=%.1fms p99=%.1fms max=%.1fms total=%d erros=%d%n",
+                    count / (double) seconds, ms(sorted, 0.50), ms(sorted, 0.99),
+                    count > 0 ? sorted[count - 1] / 1e6 : 0.0, count, errors);
+        }
+
+        private static double ms(long[] sorted, double q) {
+            if (sorted.length == 0) return 0;
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
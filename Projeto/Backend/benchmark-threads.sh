@@ -0,0 +1,46 @@
+#!/bin/bash
+
+# Compara o modelo de threads do Tomcat: pool de platform threads (padrão) x virtual threads
+# (VIRTUAL_THREADS_ENABLED=true). Sobe o jar em cada modo, aquece e mede vazão e p99 com bench/LoadTest.java.
+#
+# Uso: ./benchmark-threads.sh [concorrências] [segundos]
+#   ex.: ./benchmark-threads.sh "50 200 800" 20
+# BENCH_URLS troca as rotas medidas (padrão: página keyset + busca).
+# Requer o banco no ar (mesmas variáveis SPRING_DATASOURCE_* / DB_* da aplicação) e Java 21 no PATH.
+
+CONCURRENCY=${1:-"50 200 800"}
+SECONDS_PER_RUN=${2:-20}
+PORT=${SERVER_PORT:-8081}
+BASE="http://localhost:$PORT"
+URLS=${BENCH_URLS:-"$BASE/bff/events/page?limit=20 $BASE/bff/events/search?term=evento"}
+
+mvn -q -DskipTests package || exit 1
+JAR=$(ls target/*.jar | grep -v original | head -1)
+
+run_mode() {
+    local virtual=$1
+    VIRTUAL_THREADS_ENABLED=$virtual java -jar "$JAR" --server.port="$PORT" > "target/benchmark-app-$virtual.log" 2>&1 &
+    local pid=$!
+    for i in $(seq 1 60); do
+        curl -s -o /dev/null "$BASE/actuator/health" && break
+        sleep 1
+    done
+
+    # aquecimento (JIT, pool de conexões, caches)
+    java bench/LoadTest.java 20 5 $URLS > /dev/null
+
+    for c in $CONCURRENCY; do
+        printf "virtual=%-5s concorrência=%-5s " "$virtual" "$c"
+        java bench/LoadTest.java "$c" "$SECONDS_PER_RUN" $URLS
+    done
+
+    kill $pid
+    wait $pid 2>/dev/null
+}
+
+echo ""
+echo "=================================================="
+echo "   ⏱️  BENCHMARK: PLATFORM x VIRTUAL THREADS"
+echo "=================================================="
+run_mode false
+run_mode true
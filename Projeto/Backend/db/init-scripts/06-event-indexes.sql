@@ -0,0 +1,7 @@
+-- Índices de leitura da tabela public.event
+-- Idempotente: pode ser executado em bancos já existentes
+-- docker exec -i gerenciador-db psql -U admin -d meu_banco -f /docker-entrypoint-initdb.d/06-event-indexes.sql
+
+-- Paginação por keyset / listagem ordenada: ORDER BY event_date, event_id
+CREATE INDEX IF NOT EXISTS event_date_id_idx
+    ON public.event USING btree (event_date, event_id);
@@ -0,0 +1,12 @@
+-- Busca textual de eventos (EventRepository.search)
+-- Índices trigram permitem ILIKE '%termo%' sem varrer a tabela inteira
+-- Idempotente: pode ser executado em bancos já existentes
+-- docker exec -i gerenciador-db psql -U admin -d meu_banco -f /docker-entrypoint-initdb.d/07-event-search.sql
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS event_name_trgm_idx
+    ON public.event USING gin (event_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS event_description_trgm_idx
+    ON public.event USING gin (description gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- Índice de eventos por criador (tela "Gerenciar eventos")
+-- Idempotente: pode ser executado em bancos já existentes
+-- docker exec -i gerenciador-db psql -U admin -d meu_banco -f /docker-entrypoint-initdb.d/08-event-creator-index.sql
+
+-- WHERE creator_id = ? ORDER BY event_date, event_id (paginação por keyset) e count(*) por criador
+CREATE INDEX IF NOT EXISTS event_creator_date_idx
+    ON public.event USING btree (creator_id, event_date, event_id);
@@ -0,0 +1,14 @@
+-- Imagens dos eventos fora do banco: o arquivo JPG fica no ImageFileStore (diretório images.storeDir),
+-- endereçado pelo SHA-256 do conteúdo; a linha do evento guarda só o hash.
+-- Idempotente: pode ser executado em bancos já existentes
+-- docker exec -i gerenciador-db psql -U admin -d meu_banco -f /docker-entrypoint-initdb.d/09-event-image-hash.sql
+--
+-- Os bytea existentes em image_data são levados para o disco pela aplicação na inicialização
+-- (EventService.migrateLegacyImages, images.migrateOnStartup) e a coluna fica NULL.
+-- image_data continua no schema até todos os ambientes terem migrado.
+
+ALTER TABLE public.event ADD COLUMN IF NOT EXISTS image_hash character(64);
+
+-- localiza rapidamente o que ainda falta migrar
+CREATE INDEX IF NOT EXISTS event_legacy_image_idx
+    ON public.event (event_id) WHERE image_data IS NOT NULL AND image_hash IS NULL;
@@ -0,0 +1,10 @@
+-- Prévia minúscula da imagem do evento, devolvida junto com as listas (SUMMARY) para o primeiro
+-- desenho dos cards não depender de nenhuma requisição de imagem.
+-- Idempotente: pode ser executado em bancos já existentes
+-- docker exec -i gerenciador-db psql -U admin -d meu_banco -f /docker-entrypoint-initdb.d/10-event-image-placeholder.sql
+--
+-- Formato (ImageCodec.placeholder): base64 de [R, G, B médios, largura, altura, pixels RGB],
+-- no máximo 4x4 pixels (72 caracteres). Eventos com imagem e sem prévia são preenchidos pela
+-- aplicação na inicialização (EventService.backfillImagePlaceholders).
+
+ALTER TABLE public.event ADD COLUMN IF NOT EXISTS image_placeholder character varying(96);
@@ -0,0 +1,29 @@
+-- Respostas de POSTs com Idempotency-Key (inscrição e criação de evento), para repetir a resposta original
+-- quando o cliente reenvia o pedido. Só usada com idempotency.persist=true; sem isso as respostas ficam apenas
+-- na memória da instância. Linhas mais velhas que idempotency.ttlSeconds são apagadas pela aplicação.
+-- Idempotente: pode ser executado em bancos já existentes
+-- docker exec -i gerenciador-db psql -U admin -d meu_banco -f /docker-entrypoint-initdb.d/11-idempotency-key.sql
+
+CREATE TABLE IF NOT EXISTS public.idempotency_key
+(
+    idempotency_key text COLLATE pg_catalog."default" NOT NULL,
+    request_hash character(64) NOT NULL,
+    status smallint NOT NULL,
+    content_type text COLLATE pg_catalog."default",
+    headers text COLLATE pg_catalog."default",
+    body bytea NOT NULL,
+    created_at timestamp without time zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT idempotency_key_pkey PRIMARY KEY (idempotency_key)
+)
+
+TABLESPACE pg_default;
+
+ALTER TABLE IF EXISTS public.idempotency_key
+    OWNER to admin;
+
+-- bancos criados antes da coluna headers (demais headers da resposta, uma linha "Nome: valor" por valor)
+ALTER TABLE public.idempotency_key ADD COLUMN IF NOT EXISTS headers text;
+
+-- limpeza das respostas expiradas
+CREATE INDEX IF NOT EXISTS idempotency_key_created_at_idx
+    ON public.idempotency_key USING btree (created_at);
@@ -1,18 +1,23 @@
 package com.gerenciador.eventos.Controller;
 
+import java.security.Principal;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.gerenciador.eventos.POJO.EventWallet;
 import com.gerenciador.eventos.Service.EventWalletService;
+import com.gerenciador.eventos.Service.NotYourTurnException;
+import com.gerenciador.eventos.Service.WaitingRoom;
 
 /**
  * Controller REST para associação de eventos na carteira do usuário
@@ -27,16 +32,22 @@ public class EventWalletController {
 
     /**
      * POST /api/event-wallets - Adicionar evento à carteira
+     * Eventos com fila de espera passam pela mesma verificação de senha da BFF (header X-Queue-Token).
      */
     @PostMapping
-    public ResponseEntity<?> add(@RequestBody EventWallet ew) {
+    public ResponseEntity<?> add(@RequestBody EventWallet ew, Principal principal,
+                                 @RequestHeader(value = WaitingRoom.TOKEN_HEADER, required = false) String queueToken) {
         List<String> errors = validate(ew);
         if (!errors.isEmpty()) {
             return ResponseEntity.badRequest().body(String.join("; ", errors));
         }
         EventWallet saved;
         try {
-            saved = eventWalletService.addLink(ew);
+            saved = eventWalletService.addLink(ew, principal != null ? principal.getName() : null, queueToken);
+        } catch (NotYourTurnException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                    .body(ex.getQueueStatus());
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(ex.getMessage());
         } catch (RuntimeException ex) {
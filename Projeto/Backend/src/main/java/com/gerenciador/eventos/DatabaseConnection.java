@@ -1,26 +1,26 @@
 package com.gerenciador.eventos;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
-import org.springframework.beans.factory.annotation.Value;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+/**
+ * Ponto único de acesso a conexões JDBC para os repositories.
+ * As conexões vêm do pool (HikariCP) configurado em spring.datasource.hikari.*;
+ * fechar a conexão (try-with-resources) a devolve ao pool.
+ * Estatísticas do pool ficam em /actuator/metrics/hikaricp.connections.*
+ */
 @Component
 public class DatabaseConnection {
-    
-    @Value("${spring.datasource.url}")
-    private String url;
-    
-    @Value("${spring.datasource.username}")
-    private String user;
-    
-    @Value("${spring.datasource.password}")
-    private String password;
-    
+
+    @Autowired
+    private DataSource dataSource;
+
     public Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, user, password);
+        return dataSource.getConnection();
     }
 }
-
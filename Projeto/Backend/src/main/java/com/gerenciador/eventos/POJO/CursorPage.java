@@ -0,0 +1,36 @@
+package com.gerenciador.eventos.POJO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Página de resultados com paginação por cursor (keyset).
+ * nextCursor é opaco para o cliente e fica nulo na última página.
+ */
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor;
+
+    // construtor vazio
+    public CursorPage() {
+        this.items = new ArrayList<>();
+        this.nextCursor = null;
+    }
+
+    // construtor completo
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // getters
+    public List<T> getItems() { return items; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    // setters
+    public void setItems(List<T> items) { this.items = items; }
+
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,25 @@
+package com.gerenciador.eventos.POJO;
+
+/**
+ * Resultado de uma inscrição (EventWalletService.enroll). Só ENROLLED grava o vínculo e ocupa a vaga;
+ * os demais explicam a recusa.
+ */
+public enum EnrollmentStatus {
+    ENROLLED("Inscrição realizada"),
+    DUPLICATE("Vínculo já existente"),
+    SOLD_OUT("Evento lotado"),
+    SALES_CLOSED("Inscrições encerradas para este evento"),
+    EVENT_NOT_FOUND("Evento não encontrado"),
+    WALLET_NOT_FOUND("Carteira do usuário não encontrada");
+
+    private final String message;
+
+    EnrollmentStatus(String message) {
+        this.message = message;
+    }
+
+    /** Mensagem para o usuário */
+    public String getMessage() {
+        return message;
+    }
+}
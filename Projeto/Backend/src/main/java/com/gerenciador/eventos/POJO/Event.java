@@ -17,7 +17,9 @@ public class Event {
     private int quantity;
     private String description;
     private List<String> presenters;    //apresentadores
-    private byte[] image_data;          // imagem em formato JPG
+    private byte[] image_data;          // imagem em formato JPG (só na entrada; o arquivo vai para o ImageFileStore)
+    private String image_hash;          // SHA-256 do JPG no ImageFileStore (null = sem imagem)
+    private String image_placeholder;   // prévia de poucos bytes (cor média + até 4x4 px) enviada nas listas
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -35,6 +37,8 @@ public class Event {
         this.description = "";
         this.presenters = new ArrayList<>();
         this.image_data = null;
+        this.image_hash = null;
+        this.image_placeholder = null;
         this.createdAt = null;
         this.updatedAt = null;
     }
@@ -110,6 +114,14 @@ public class Event {
 
     public void setImage_data(byte[] image_data) { this.image_data = image_data; }
 
+    public String getImage_hash() { return image_hash; }
+
+    public void setImage_hash(String image_hash) { this.image_hash = image_hash; }
+
+    public String getImage_placeholder() { return image_placeholder; }
+
+    public void setImage_placeholder(String image_placeholder) { this.image_placeholder = image_placeholder; }
+
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
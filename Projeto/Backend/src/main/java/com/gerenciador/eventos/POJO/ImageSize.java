@@ -0,0 +1,27 @@
+package com.gerenciador.eventos.POJO;
+
+import java.util.Locale;
+
+/**
+ * Variantes redimensionadas da imagem de um evento (parâmetro ?size= de /bff/events/{id}/image).
+ * O maior lado de cada uma é configurado em images.variants.*MaxPx.
+ */
+public enum ImageSize {
+    THUMB,  // miniaturas das listas (busca)
+    CARD,   // cards da home
+    FULL;   // tela do evento
+
+    /** Nome usado na URL e no arquivo da variante */
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Variante pelo nome da URL; null/vazio = original. Lança IllegalArgumentException se não existir */
+    public static ImageSize fromKey(String key) {
+        if (key == null || key.isBlank()) return null;
+        for (ImageSize size : values()) {
+            if (size.key().equalsIgnoreCase(key.trim())) return size;
+        }
+        throw new IllegalArgumentException("Tamanho de imagem inválido: " + key + " (use thumb, card ou full)");
+    }
+}
@@ -0,0 +1,48 @@
+package com.gerenciador.eventos.POJO;
+
+/**
+ * Situação de um usuário na fila de espera de um evento (WaitingRoom).
+ * O token identifica a senha na fila e vai no header X-Queue-Token da consulta e da inscrição.
+ * Eventos sem fila respondem admitted = true e token nulo.
+ */
+public class QueueStatus {
+
+    private String token;
+    private long position;            // pessoas à frente; 0 quando admitido
+    private boolean admitted;
+    private long retryAfterSeconds;   // quando consultar de novo (0 quando admitido)
+
+    // construtor vazio
+    public QueueStatus() {
+        this.token = null;
+        this.position = 0;
+        this.admitted = false;
+        this.retryAfterSeconds = 0;
+    }
+
+    // construtor completo
+    public QueueStatus(String token, long position, boolean admitted, long retryAfterSeconds) {
+        this.token = token;
+        this.position = position;
+        this.admitted = admitted;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    // getters
+    public String getToken() { return token; }
+
+    public long getPosition() { return position; }
+
+    public boolean isAdmitted() { return admitted; }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+
+    // setters
+    public void setToken(String token) { this.token = token; }
+
+    public void setPosition(long position) { this.position = position; }
+
+    public void setAdmitted(boolean admitted) { this.admitted = admitted; }
+
+    public void setRetryAfterSeconds(long retryAfterSeconds) { this.retryAfterSeconds = retryAfterSeconds; }
+}
@@ -0,0 +1,40 @@
+package com.gerenciador.eventos.POJO;
+
+/**
+ * Evento na visão de um usuário ("meus eventos"): projeção SUMMARY do evento (sem imagem)
+ * e a relação do usuário com ele. Os dois indicadores podem ser verdadeiros ao mesmo tempo.
+ */
+public class UserEvent {
+
+    private Event event;
+    private boolean enrolled;   // inscrito (walletevent)
+    private boolean created;    // criador do evento
+
+    // construtor vazio
+    public UserEvent() {
+        this.event = null;
+        this.enrolled = false;
+        this.created = false;
+    }
+
+    // construtor completo
+    public UserEvent(Event event, boolean enrolled, boolean created) {
+        this.event = event;
+        this.enrolled = enrolled;
+        this.created = created;
+    }
+
+    // getters
+    public Event getEvent() { return event; }
+
+    public boolean isEnrolled() { return enrolled; }
+
+    public boolean isCreated() { return created; }
+
+    // setters
+    public void setEvent(Event event) { this.event = event; }
+
+    public void setEnrolled(boolean enrolled) { this.enrolled = enrolled; }
+
+    public void setCreated(boolean created) { this.created = created; }
+}
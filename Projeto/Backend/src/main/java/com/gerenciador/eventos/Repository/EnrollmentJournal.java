@@ -0,0 +1,295 @@
+package com.gerenciador.eventos.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gerenciador.eventos.POJO.EventWallet;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Journal de inscrições concedidas em memória (SeatInventory): arquivo só de acréscimo, mapeado em memória,
+ * que guarda cada vínculo até ele ser aplicado em walletevent.
+ *
+ * Layout: cabeçalho de 32 bytes (magic, versão, posição aplicada) seguido de registros de 32 bytes
+ * (user_id, event_id, instante em ms, verificador). O verificador é gravado por último e é derivado dos
+ * campos: na recuperação a leitura para no primeiro registro vazio ou incompleto.
+ *
+ * Durabilidade (enrollment.journal.fsync): append só reserva e escreve; awaitDurable espera o próximo
+ * force() da thread de sincronização, que cobre de uma vez todos os registros escritos até ali (group commit).
+ * Sem fsync o registro sobrevive à queda do processo (page cache), mas não à do sistema.
+ *
+ * Posições são lógicas e só crescem; quando tudo o que foi escrito já foi aplicado o arquivo é zerado e
+ * reaproveitado desde o início. Arquivo cheio: append devolve -1.
+ */
+@Component
+public class EnrollmentJournal {
+
+    static final int HEADER = 32;
+    static final int RECORD = 32;
+    private static final int MAGIC = 0x454A524E; // "EJRN"
+    private static final int VERSION = 1;
+    private static final int APPLIED_OFFSET = 8;
+    private static final long SYNC_RETRY_MILLIS = 10;
+
+    @Value("${enrollment.journal.file}")
+    private String file;
+
+    @Value("${enrollment.journal.maxBytes}")
+    private long maxBytes;
+
+    @Value("${enrollment.journal.fsync}")
+    private boolean fsync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private Thread syncThread;
+    /** Posição lógica do início da área de registros (muda quando o arquivo é reaproveitado) */
+    private long base;
+    private long writePos;
+    private long durablePos;
+    private long appliedPos;
+    private boolean syncing;
+    private volatile boolean open;
+
+    /** Se há journal em disco (de uma execução anterior ou desta) */
+    public boolean exists() {
+        return open || Files.exists(path());
+    }
+
+    /**
+     * Abre (ou cria) o arquivo e localiza o fim dos registros válidos. Idempotente.
+     * Registros encontrados na abertura já estão no arquivo e contam como duráveis.
+     */
+    public void open() {
+        lock.lock();
+        try {
+            if (open) return;
+            Path path = path();
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long size = Math.min(Math.max(maxBytes, HEADER + RECORD), Integer.MAX_VALUE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putLong(APPLIED_OFFSET, HEADER);
+                buffer.force(0, HEADER);
+            } else if (buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Versão de journal de inscrições não suportada: " + buffer.getInt(4));
+            }
+            base = HEADER;
+            appliedPos = buffer.getLong(APPLIED_OFFSET);
+            long end = appliedPos;
+            while (end + RECORD <= buffer.capacity() && valid(end)) end += RECORD;
+            writePos = end;
+            durablePos = end;
+            if (fsync) {
+                syncThread = new Thread(this::syncLoop, "enrollment-journal-sync");
+                syncThread.setDaemon(true);
+                syncThread.start();
+            }
+            open = true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Erro ao abrir journal de inscrições: " + ex.getMessage(), ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        lock.lock();
+        try {
+            if (!open) return;
+            open = false;
+            if (syncThread != null) syncThread.interrupt();
+            synced.signalAll();
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acrescenta um vínculo concedido.
+     * @return posição lógica do fim do registro (para awaitDurable), ou -1 se o arquivo estiver cheio
+     */
+    public long append(long userId, long eventId, long epochMillis) {
+        lock.lock();
+        try {
+            if (!open) throw new IllegalStateException("Journal de inscrições fechado");
+            int at = physical(writePos);
+            if (at + RECORD > buffer.capacity()) return -1;
+            buffer.putLong(at, userId);
+            buffer.putLong(at + 8, eventId);
+            buffer.putLong(at + 16, epochMillis);
+            buffer.putInt(at + 24, check(userId, eventId, epochMillis));
+            writePos += RECORD;
+            if (fsync) written.signal();
+            else durablePos = writePos;
+            return writePos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Bloqueia até o registro que termina em position estar em disco (sem fsync retorna na hora) */
+    public void awaitDurable(long position) {
+        lock.lock();
+        try {
+            while (durablePos < position) {
+                if (!open) throw new IllegalStateException("Journal de inscrições fechado");
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Lote de vínculos duráveis ainda não aplicados, a partir do mais antigo */
+    public Pending pending(int max) {
+        lock.lock();
+        try {
+            List<EventWallet> links = new ArrayList<>();
+            long pos = appliedPos;
+            while (pos < durablePos && links.size() < max) {
+                int at = physical(pos);
+                EventWallet ew = new EventWallet(buffer.getLong(at), buffer.getLong(at + 8));
+                Timestamp createdAt = new Timestamp(buffer.getLong(at + 16));
+                ew.setCreatedAt(createdAt.toLocalDateTime());
+                ew.setUpdatedAt(createdAt.toLocalDateTime());
+                links.add(ew);
+                pos += RECORD;
+            }
+            return new Pending(links, pos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registra que tudo até end (fim de um lote de pending) já está em walletevent.
+     * Se não sobrou nada por aplicar, o arquivo é zerado e reaproveitado.
+     */
+    public void markApplied(long end) {
+        lock.lock();
+        try {
+            if (!open || end <= appliedPos) return;
+            appliedPos = end;
+            if (appliedPos == writePos && !syncing) {
+                int used = physical(writePos);
+                for (int at = HEADER; at < used; at += 8) buffer.putLong(at, 0L);
+                base = writePos;
+                buffer.putLong(APPLIED_OFFSET, HEADER);
+                buffer.force(0, used);
+            } else {
+                buffer.putLong(APPLIED_OFFSET, physical(appliedPos));
+                buffer.force(0, HEADER);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Registros escritos e ainda não aplicados */
+    public long pendingCount() {
+        lock.lock();
+        try {
+            return (writePos - appliedPos) / RECORD;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // group commit: um force() para todos os registros escritos desde o anterior
+    private void syncLoop() {
+        while (true) {
+            long target;
+            int from;
+            lock.lock();
+            try {
+                while (open && writePos == durablePos) {
+                    try {
+                        written.await();
+                    } catch (InterruptedException e) {
+                        if (!open) return;
+                    }
+                }
+                if (!open) return;
+                target = writePos;
+                from = physical(durablePos);
+                syncing = true;
+            } finally {
+                lock.unlock();
+            }
+            boolean forced = false;
+            try {
+                buffer.force(from, physical(target) - from);
+                forced = true;
+            } catch (UncheckedIOException ex) {
+                // quem espera continua esperando; nova tentativa na próxima volta
+            } finally {
+                lock.lock();
+                try {
+                    if (forced) durablePos = target;
+                    syncing = false;
+                    synced.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (!forced) {
+                try {
+                    Thread.sleep(SYNC_RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    if (!open) return;
+                }
+            }
+        }
+    }
+
+    private boolean valid(long physicalPos) {
+        int at = (int) physicalPos;
+        int check = buffer.getInt(at + 24);
+        return check != 0 && check == check(buffer.getLong(at), buffer.getLong(at + 8), buffer.getLong(at + 16));
+    }
+
+    private static int check(long userId, long eventId, long epochMillis) {
+        long h = userId * 0x9E3779B97F4A7C15L ^ eventId * 0xC2B2AE3D27D4EB4FL ^ epochMillis;
+        int c = (int) (h ^ (h >>> 32));
+        return c == 0 ? 1 : c;
+    }
+
+    private int physical(long logical) {
+        return (int) (HEADER + logical - base);
+    }
+
+    private Path path() {
+        return Paths.get(file).toAbsolutePath().normalize();
+    }
+
+    /** Vínculos a aplicar e a posição a informar em markApplied depois de gravá-los */
+    public record Pending(List<EventWallet> links, long end) {
+    }
+}
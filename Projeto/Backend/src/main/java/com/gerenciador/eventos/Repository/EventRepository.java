@@ -4,18 +4,34 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
 import com.gerenciador.eventos.DatabaseConnection;
 import com.gerenciador.eventos.POJO.Event;
+import com.gerenciador.eventos.POJO.UserEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
  * Repository para entidade Event usando JDBC cru via DatabaseConnection.
@@ -24,13 +40,65 @@ import com.gerenciador.eventos.POJO.Event;
 @Repository
 public class EventRepository {
 
+    /**
+     * Projeções explícitas (nenhuma leitura usa SELECT *):
+     * SUMMARY para listas/cards, DETAIL para busca por id/nome. A imagem fica em disco (ImageFileStore);
+     * SUMMARY traz só a prévia inline (image_placeholder, poucos bytes) e DETAIL também o image_hash, então /bff/events/{id}/image resolve o arquivo pelo cache de findById.
+     * O bytea legado (image_data) só é lido por findImageById, durante a migração.
+     */
+    private static final String SUMMARY_COLUMNS =
+            "event_id, creator_id, event_name, ead, address, event_date, buy_time_limit, capacity, quant, description, "
+            + "image_placeholder";
+    private static final String DETAIL_COLUMNS = SUMMARY_COLUMNS + ", image_hash, created_at, updated_at";
+
+    /** Colunas geradas pelo banco, devolvidas pelas escritas via RETURNING */
+    private static final String GENERATED_COLUMNS = "event_id, created_at, updated_at";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO event (creator_id, event_name, ead, address, event_date, buy_time_limit, capacity, quant, description, image_hash, "
+            + "image_placeholder) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** Linhas buscadas por ida ao banco no streamAll */
+    private static final int STREAM_FETCH_SIZE = 100;
+
+    private static final EventRowMapper MAPPER = new EventRowMapper();
+
     @Autowired
     private DatabaseConnection databaseConnection;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${events.cache.maxSize}")
+    private long cacheMaxSize;
+
+    @Value("${events.cache.ttlSeconds}")
+    private long cacheTtlSeconds;
+
+    /**
+     * Cache de findById por event_id (projeção DETAIL, sem imagem).
+     * Caffeine: limite de tamanho com admissão por frequência (W-TinyLFU) e expiração após escrita.
+     * update/updateImage/delete invalidam a entrada de forma síncrona; ids inexistentes não são guardados.
+     * Leituras via ReadThrough: a consulta roda fora do lock do cache (sem pinning com virtual threads).
+     * Contadores em /actuator/metrics/cache.gets, cache.evictions etc. (tag cache=events)
+     */
+    private AsyncCache<Long, Event> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "events");
+    }
+
     /**
      * Inserir novo evento.
      * Campos do banco: creator_id, event_name, ead, address, event_date,
      * buy_time_limit, capacity, quant, description.
+     * Nome duplicado é detectado pela constraint Event_event_name_key (sem consulta prévia).
      */
     public Event save(Event e) {
         if (e.getCreator_id() == null) {
@@ -44,58 +112,89 @@ public class EventRepository {
         }
 
             // buy_time_limit: definimos via aplicação
-            String sql = "INSERT INTO event (creator_id, event_name, ead, address, event_date, buy_time_limit, capacity, quant, description, image_data) "
-                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            String sql = INSERT_SQL + " RETURNING " + GENERATED_COLUMNS;
 
             try (Connection conn = databaseConnection.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-                int idx = 1;
-                stmt.setLong(idx++, e.getCreator_id());
-                stmt.setString(idx++, e.getEvent_name());
-                stmt.setBoolean(idx++, toPrimitive(e.getIs_EAD()));
-                stmt.setString(idx++, nullIfBlank(e.getAddress()));
-                stmt.setTimestamp(idx++, toTimestamp(e.getEvent_date()));
-                // se buy_time_limit for nulo, usar event_date como default
-                LocalDateTime buyLimit = (e.getBuy_time_limit() != null) ? e.getBuy_time_limit() : e.getEvent_date();
-                stmt.setTimestamp(idx++, toTimestamp(buyLimit));
-                if (e.getLot_quantity() == null) {
-                    stmt.setNull(idx++, java.sql.Types.INTEGER);
-                } else {
-                    stmt.setInt(idx++, e.getLot_quantity());
-                }
-                stmt.setInt(idx++, e.getQuantity());
-                stmt.setString(idx++, e.getDescription() != null ? e.getDescription() : "");
-                // Imagem
-                if (e.getImage_data() != null) {
-                    stmt.setBytes(idx++, e.getImage_data());
-                } else {
-                    stmt.setNull(idx++, java.sql.Types.BINARY);
-                }
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                stmt.executeUpdate();
+                bindInsert(stmt, e);
 
-                ResultSet rs = stmt.getGeneratedKeys();
+                // id e timestamps gerados pelo banco voltam no mesmo round trip
+                ResultSet rs = stmt.executeQuery();
                 if (rs.next()) {
-                    e.setEvent_id(rs.getLong(1));
+                    MAPPER.map(sql, rs, e);
                 }
-
-                fetchTimestamps(e);
                 return e;
             } catch (SQLException ex) {
-                throw new RuntimeException("Erro ao salvar evento: " + ex.getMessage(), ex);
+                throw duplicateOr(ex, e, "Erro ao salvar evento: ");
             }
     }
 
-    /** Buscar evento por ID */
+    /**
+     * Inserir vários eventos com JDBC batch em uma única transação (usado pelo seed em lote).
+     * Tudo ou nada: em caso de erro o lote é desfeito e a exceção propagada. Não devolve os ids gerados.
+     */
+    public int saveAll(List<Event> events) {
+        if (events.isEmpty()) return 0;
+        try (Connection conn = databaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (Event e : events) {
+                    bindInsert(stmt, e);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return events.size();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao salvar eventos em lote: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void bindInsert(PreparedStatement stmt, Event e) throws SQLException {
+        int idx = 1;
+        stmt.setLong(idx++, e.getCreator_id());
+        stmt.setString(idx++, e.getEvent_name());
+        stmt.setBoolean(idx++, toPrimitive(e.getIs_EAD()));
+        stmt.setString(idx++, nullIfBlank(e.getAddress()));
+        stmt.setTimestamp(idx++, toTimestamp(e.getEvent_date()));
+        // se buy_time_limit for nulo, usar event_date como default
+        LocalDateTime buyLimit = (e.getBuy_time_limit() != null) ? e.getBuy_time_limit() : e.getEvent_date();
+        stmt.setTimestamp(idx++, toTimestamp(buyLimit));
+        if (e.getLot_quantity() == null) {
+            stmt.setNull(idx++, java.sql.Types.INTEGER);
+        } else {
+            stmt.setInt(idx++, e.getLot_quantity());
+        }
+        stmt.setInt(idx++, e.getQuantity());
+        stmt.setString(idx++, e.getDescription() != null ? e.getDescription() : "");
+        // Imagem: só o hash do arquivo já gravado no ImageFileStore
+        stmt.setString(idx++, e.getImage_hash());
+        stmt.setString(idx++, e.getImage_placeholder());
+    }
+
+    /**
+     * Buscar evento por ID (read-through no cache; devolve uma cópia, o chamador pode alterá-la).
+     */
     public Event findById(Long id) {
-        String sql = "SELECT * FROM event WHERE event_id = ?";
+        Event cached = ReadThrough.get(cache, id, this::loadById);
+        return cached != null ? copyOf(cached) : null;
+    }
+
+    private Event loadById(Long id) {
+        String sql = "SELECT " + DETAIL_COLUMNS + " FROM event WHERE event_id = ?";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return map(rs);
+                return MAPPER.map(sql, rs, new Event());
             }
             return null;
         } catch (SQLException ex) {
@@ -103,15 +202,28 @@ public class EventRepository {
         }
     }
 
+    /** Bytes da imagem legada em image_data (null se o evento não existir ou já tiver migrado) */
+    public byte[] findImageById(Long id) {
+        String sql = "SELECT image_data FROM event WHERE event_id = ?";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getBytes(1) : null;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao buscar imagem do evento: " + ex.getMessage(), ex);
+        }
+    }
+
     /** Buscar por nome (único) */
     public Event findByName(String name) {
-        String sql = "SELECT * FROM event WHERE event_name = ?";
+        String sql = "SELECT " + DETAIL_COLUMNS + " FROM event WHERE event_name = ?";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, name);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return map(rs);
+                return MAPPER.map(sql, rs, new Event());
             }
             return null;
         } catch (SQLException ex) {
@@ -134,13 +246,14 @@ public class EventRepository {
 
     /** Listar todos os eventos */
     public List<Event> findAll() {
-        String sql = "SELECT * FROM event ORDER BY event_id";
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM event ORDER BY event_id";
         List<Event> list = new ArrayList<>();
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
+            int[] layout = MAPPER.layout(sql, rs);
             while (rs.next()) {
-                list.add(map(rs));
+                list.add(MAPPER.map(rs, layout, new Event()));
             }
             return list;
         } catch (SQLException ex) {
@@ -148,6 +261,230 @@ public class EventRepository {
         }
     }
 
+    /**
+     * Flags de validação de um evento em uma única consulta:
+     * name_taken e creator_exists. Valor nulo nunca conta como existente.
+     */
+    public Map<String, Boolean> findValidationFlags(String name, Long creatorId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM event WHERE event_name = ?) AS name_taken, "
+                + "EXISTS (SELECT 1 FROM users WHERE user_id = ?) AS creator_exists";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, name);
+            stmt.setObject(2, creatorId, java.sql.Types.BIGINT);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return RowMapper.readFlags(rs);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao validar evento: " + ex.getMessage(), ex);
+        }
+    }
+
+    /** Nomes da lista que já existem em event (uma consulta para o lote inteiro) */
+    public Set<String> findExistingNames(Collection<String> names) {
+        Set<String> found = new HashSet<>();
+        if (names.isEmpty()) return found;
+        String sql = "SELECT event_name FROM event WHERE event_name = ANY(?)";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("text", names.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                found.add(rs.getString(1));
+            }
+            return found;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao verificar nomes de eventos: " + ex.getMessage(), ex);
+        }
+    }
+
+    /** Ids da lista que existem em event */
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        Set<Long> found = new HashSet<>();
+        if (ids.isEmpty()) return found;
+        String sql = "SELECT event_id FROM event WHERE event_id = ANY(?)";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", ids.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                found.add(rs.getLong(1));
+            }
+            return found;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao verificar eventos: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Página de eventos por keyset em (event_date, event_id).
+     * Sem posição (afterDate nulo) devolve a primeira página; o custo não depende de quantas páginas já foram lidas.
+     */
+    public List<Event> findPage(LocalDateTime afterDate, Long afterId, int limit) {
+        boolean hasCursor = afterDate != null && afterId != null;
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM event "
+                + (hasCursor ? "WHERE (event_date, event_id) > (?, ?) " : "")
+                + "ORDER BY event_date, event_id LIMIT ?";
+        List<Event> list = new ArrayList<>();
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int idx = 1;
+            if (hasCursor) {
+                stmt.setTimestamp(idx++, toTimestamp(afterDate));
+                stmt.setLong(idx++, afterId);
+            }
+            stmt.setInt(idx++, limit);
+            ResultSet rs = stmt.executeQuery();
+            int[] layout = MAPPER.layout(sql, rs);
+            while (rs.next()) {
+                list.add(MAPPER.map(rs, layout, new Event()));
+            }
+            return list;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao paginar eventos: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Página de eventos de um criador por keyset em (event_date, event_id),
+     * servida pelo índice event_creator_date_idx (08-event-creator-index.sql).
+     */
+    public List<Event> findPageByCreatorId(Long creatorId, LocalDateTime afterDate, Long afterId, int limit) {
+        boolean hasCursor = afterDate != null && afterId != null;
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM event WHERE creator_id = ? "
+                + (hasCursor ? "AND (event_date, event_id) > (?, ?) " : "")
+                + "ORDER BY event_date, event_id LIMIT ?";
+        List<Event> list = new ArrayList<>();
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int idx = 1;
+            stmt.setLong(idx++, creatorId);
+            if (hasCursor) {
+                stmt.setTimestamp(idx++, toTimestamp(afterDate));
+                stmt.setLong(idx++, afterId);
+            }
+            stmt.setInt(idx++, limit);
+            ResultSet rs = stmt.executeQuery();
+            int[] layout = MAPPER.layout(sql, rs);
+            while (rs.next()) {
+                list.add(MAPPER.map(rs, layout, new Event()));
+            }
+            return list;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao listar eventos do criador: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Página de "meus eventos" de um usuário: os inscritos (walletevent) e os criados por ele, numa única
+     * consulta, por keyset em (event_date, event_id). Os ids saem do índice da PK de walletevent e de
+     * event_creator_date_idx; só eles são juntados a event, na projeção SUMMARY (sem imagem).
+     */
+    public List<UserEvent> findPageForUser(Long userId, LocalDateTime afterDate, Long afterId, int limit) {
+        boolean hasCursor = afterDate != null && afterId != null;
+        String sql = "WITH mine AS ("
+                + "SELECT event_id, bool_or(enrolled) AS enrolled, bool_or(created) AS created FROM ("
+                + "SELECT event_id, true AS enrolled, false AS created FROM walletevent WHERE user_id = ? "
+                + "UNION ALL SELECT event_id, false, true FROM event WHERE creator_id = ?"
+                + ") m GROUP BY event_id) "
+                + "SELECT " + SUMMARY_COLUMNS + ", enrolled, created FROM mine JOIN event USING (event_id) "
+                + (hasCursor ? "WHERE (event_date, event_id) > (?, ?) " : "")
+                + "ORDER BY event_date, event_id LIMIT ?";
+        List<UserEvent> list = new ArrayList<>();
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int idx = 1;
+            stmt.setLong(idx++, userId);
+            stmt.setLong(idx++, userId);
+            if (hasCursor) {
+                stmt.setTimestamp(idx++, toTimestamp(afterDate));
+                stmt.setLong(idx++, afterId);
+            }
+            stmt.setInt(idx++, limit);
+            ResultSet rs = stmt.executeQuery();
+            int[] layout = MAPPER.layout(sql, rs);
+            int enrolled = rs.findColumn("enrolled");
+            int created = rs.findColumn("created");
+            while (rs.next()) {
+                Event e = MAPPER.map(rs, layout, new Event());
+                list.add(new UserEvent(e, rs.getBoolean(enrolled), rs.getBoolean(created)));
+            }
+            return list;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao listar eventos do usuário: " + ex.getMessage(), ex);
+        }
+    }
+
+    /** Quantidade de eventos de um criador (index-only scan em event_creator_date_idx) */
+    public long countByCreatorId(Long creatorId) {
+        String sql = "SELECT count(*) FROM event WHERE creator_id = ?";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, creatorId);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao contar eventos do criador: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Busca por substring (sem diferenciar maiúsculas) em event_name e description,
+     * resolvida no banco com os índices trigram de 07-event-search.sql.
+     * Ranking: acertos no nome antes de acertos só na descrição, depois pela similaridade do nome com o termo.
+     */
+    public List<Event> search(String term, int limit) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM event "
+                + "WHERE event_name ILIKE ? OR description ILIKE ? "
+                + "ORDER BY (event_name ILIKE ?) DESC, similarity(event_name, ?) DESC, event_date, event_id "
+                + "LIMIT ?";
+        String pattern = "%" + escapeLike(term) + "%";
+        List<Event> list = new ArrayList<>();
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, pattern);
+            stmt.setString(2, pattern);
+            stmt.setString(3, pattern);
+            stmt.setString(4, term);
+            stmt.setInt(5, limit);
+            ResultSet rs = stmt.executeQuery();
+            int[] layout = MAPPER.layout(sql, rs);
+            while (rs.next()) {
+                list.add(MAPPER.map(rs, layout, new Event()));
+            }
+            return list;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao buscar eventos: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Percorre todos os eventos em ordem (event_date, event_id) sem materializar a lista.
+     * Usa cursor do servidor (autocommit desligado + fetch size), então a memória fica
+     * limitada a STREAM_FETCH_SIZE linhas, qualquer que seja o tamanho da tabela.
+     */
+    public void streamAll(Consumer<Event> consumer) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM event ORDER BY event_date, event_id";
+        try (Connection conn = databaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    int[] layout = MAPPER.layout(sql, rs);
+                    while (rs.next()) {
+                        consumer.accept(MAPPER.map(rs, layout, new Event()));
+                    }
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao percorrer eventos: " + ex.getMessage(), ex);
+        }
+    }
+
     /** Atualizar evento existente */
     public Event update(Event e) {
         if (e.getEvent_id() == null) {
@@ -155,12 +492,20 @@ public class EventRepository {
         }
         // UPDATE: se buy_time_limit vier null, não atualizamos essa coluna (mantém valor atual)
         boolean updateBuyLimit = e.getBuy_time_limit() != null;
+        // Idem para a imagem: null significa "manter" a atual
+        boolean updateImage = e.getImage_hash() != null;
         StringBuilder sb = new StringBuilder();
         sb.append("UPDATE event SET creator_id = ?, event_name = ?, ead = ?, address = ?, event_date = ?, ");
         if (updateBuyLimit) {
             sb.append("buy_time_limit = ?, ");
         }
-        sb.append("capacity = ?, quant = ?, description = ?, image_data = ? WHERE event_id = ?");
+        // quant é a contagem de inscritos mantida pelo servidor: não vem do cliente e limita a nova capacity
+        sb.append("capacity = ?, description = ?");
+        if (updateImage) {
+            sb.append(", image_hash = ?, image_placeholder = ?, image_data = NULL");
+        }
+        sb.append(" WHERE event_id = ? AND quant <= COALESCE(?, quant) ");
+        sb.append("RETURNING ").append(GENERATED_COLUMNS).append(", quant");
         String upSql = sb.toString();
 
         try (Connection conn = databaseConnection.getConnection();
@@ -175,107 +520,181 @@ public class EventRepository {
             if (updateBuyLimit) {
                 stmt.setTimestamp(idx++, toTimestamp(e.getBuy_time_limit()));
             }
-            if (e.getLot_quantity() == null) {
-                stmt.setNull(idx++, java.sql.Types.INTEGER);
-            } else {
-                stmt.setInt(idx++, e.getLot_quantity());
-            }
-            stmt.setInt(idx++, e.getQuantity());
+            setCapacity(stmt, idx++, e.getLot_quantity());
             stmt.setString(idx++, e.getDescription() != null ? e.getDescription() : "");
-            // image_data: aceita null
-            if (e.getImage_data() != null) {
-                stmt.setBytes(idx++, e.getImage_data());
-            } else {
-                stmt.setNull(idx++, java.sql.Types.BINARY);
+            if (updateImage) {
+                stmt.setString(idx++, e.getImage_hash());
+                stmt.setString(idx++, e.getImage_placeholder());
             }
             long eventIdVal = Objects.requireNonNull(e.getEvent_id(), "event_id não pode ser nulo");
             stmt.setLong(idx++, eventIdVal);
+            setCapacity(stmt, idx++, e.getLot_quantity());
 
-            stmt.executeUpdate();
-            fetchTimestamps(e);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                MAPPER.map(upSql, rs, e);
+            } else {
+                Integer enrolled = findQuantity(conn, eventIdVal);
+                if (enrolled != null) {
+                    // evento existe: a nova capacity ficou abaixo dos inscritos
+                    throw new DataIntegrityViolationException(
+                            "capacity (lot_quantity) não pode ser menor que o número de inscritos: " + enrolled);
+                }
+            }
             return e;
         } catch (SQLException ex) {
-            throw new RuntimeException("Erro ao atualizar evento: " + ex.getMessage(), ex);
+            throw duplicateOr(ex, e, "Erro ao atualizar evento: ");
+        } finally {
+            // conexão já devolvida (autocommit): a próxima leitura recarrega do banco
+            cache.synchronous().invalidate(e.getEvent_id());
         }
     }
 
-    /** Remover evento definitivamente */
-    public void delete(Long id) {
-        String sql = "DELETE FROM event WHERE event_id = ?";
+    private static void setCapacity(PreparedStatement stmt, int idx, Integer capacity) throws SQLException {
+        if (capacity == null) {
+            stmt.setNull(idx, java.sql.Types.INTEGER);
+        } else {
+            stmt.setInt(idx, capacity);
+        }
+    }
+
+    /** quant atual do evento, ou null se ele não existir */
+    private static Integer findQuantity(Connection conn, long eventId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT quant FROM event WHERE event_id = ?")) {
+            stmt.setLong(1, eventId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : null;
+        }
+    }
+
+    /**
+     * Substituir apenas a imagem do evento (hash do arquivo já gravado no ImageFileStore e a prévia).
+     * @return false se o evento não existir
+     */
+    public boolean updateImageHash(Long id, String imageHash, String placeholder) {
+        String sql = "UPDATE event SET image_hash = ?, image_placeholder = ?, image_data = NULL WHERE event_id = ?";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setLong(1, id);
-            stmt.executeUpdate();
+            stmt.setString(1, imageHash);
+            stmt.setString(2, placeholder);
+            stmt.setLong(3, id);
+            return stmt.executeUpdate() > 0;
         } catch (SQLException ex) {
-            throw new RuntimeException("Erro ao deletar evento: " + ex.getMessage(), ex);
+            throw new RuntimeException("Erro ao atualizar imagem do evento: " + ex.getMessage(), ex);
+        } finally {
+            cache.synchronous().invalidate(id);
         }
     }
 
-    // ===== Helpers =====
-    private void fetchTimestamps(Event e) {
-        if (e.getEvent_id() == null) return;
-        String sql = "SELECT created_at, updated_at FROM event WHERE event_id = ?";
+    /** Ids (> afterId, em ordem) de eventos com imagem ainda em image_data, o bytea legado */
+    public List<Long> findLegacyImageIds(long afterId, int limit) {
+        String sql = "SELECT event_id FROM event WHERE image_data IS NOT NULL AND image_hash IS NULL "
+                + "AND event_id > ? ORDER BY event_id LIMIT ?";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setLong(1, e.getEvent_id());
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, limit);
             ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                Timestamp c = rs.getTimestamp("created_at");
-                if (c != null) e.setCreatedAt(c.toLocalDateTime());
-                Timestamp u = rs.getTimestamp("updated_at");
-                if (u != null) e.setUpdatedAt(u.toLocalDateTime());
-            }
+            List<Long> ids = new ArrayList<>();
+            while (rs.next()) ids.add(rs.getLong(1));
+            return ids;
         } catch (SQLException ex) {
-            System.err.println("Aviso: não foi possível buscar timestamps do evento: " + ex.getMessage());
-        }
-    }
-
-    private Event map(ResultSet rs) throws SQLException {
-        Event e = new Event();
-        e.setEvent_id(rs.getLong("event_id"));
-        e.setCreator_id(rs.getLong("creator_id"));
-        e.setEvent_name(rs.getString("event_name"));
-        e.setIs_EAD(rs.getBoolean("ead"));
-        e.setAddress(rs.getString("address"));
-        Timestamp ed = rs.getTimestamp("event_date");
-        if (ed != null) e.setEvent_date(ed.toLocalDateTime());
-        Timestamp btl = rs.getTimestamp("buy_time_limit");
-        if (btl != null) e.setBuy_time_limit(btl.toLocalDateTime());
-        int capacity = rs.getInt("capacity");
-        if (!rs.wasNull()) e.setLot_quantity(capacity);
-        e.setQuantity(rs.getInt("quant"));
-        e.setDescription(rs.getString("description"));
-        // Imagem (coluna pode não existir em bancos antigos)
-        if (hasColumn(rs, "image_data")) {
-            byte[] imageData = rs.getBytes("image_data");
-            if (imageData != null) e.setImage_data(imageData);
-        }
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) e.setCreatedAt(createdAt.toLocalDateTime());
-        Timestamp updatedAt = rs.getTimestamp("updated_at");
-        if (updatedAt != null) e.setUpdatedAt(updatedAt.toLocalDateTime());
-        // presenters não está no schema -> manter lista vazia ou a recebida externamente
-        return e;
+            throw new RuntimeException("Erro ao buscar imagens legadas: " + ex.getMessage(), ex);
+        }
     }
 
     /**
-     * Verifica se o ResultSet contém uma coluna com o nome dado.
-     * Usado para compatibilidade com esquemas antigos que ainda não tenham a coluna image_data.
+     * Troca o bytea legado pelo hash do arquivo, só se o evento ainda não tiver hash
+     * (um upload concorrente já gravou a imagem nova e vence).
      */
-    private boolean hasColumn(ResultSet rs, String columnName) {
-        try {
-            java.sql.ResultSetMetaData meta = rs.getMetaData();
-            int cols = meta.getColumnCount();
-            for (int i = 1; i <= cols; i++) {
-                String label = meta.getColumnLabel(i);
-                if (columnName.equalsIgnoreCase(label)) return true;
-                String name = meta.getColumnName(i);
-                if (columnName.equalsIgnoreCase(name)) return true;
-            }
+    public boolean migrateImage(Long id, String imageHash, String placeholder) {
+        String sql = "UPDATE event SET image_hash = ?, image_placeholder = ?, image_data = NULL "
+                + "WHERE event_id = ? AND image_hash IS NULL";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, imageHash);
+            stmt.setString(2, placeholder);
+            stmt.setLong(3, id);
+            return stmt.executeUpdate() > 0;
         } catch (SQLException ex) {
-            // se falhar, assume que a coluna não existe
+            throw new RuntimeException("Erro ao migrar imagem do evento: " + ex.getMessage(), ex);
+        } finally {
+            cache.synchronous().invalidate(id);
         }
-        return false;
+    }
+
+    /** event_id -> image_hash (> afterId, em ordem) de eventos com imagem em disco e ainda sem prévia */
+    public Map<Long, String> findImagesWithoutPlaceholder(long afterId, int limit) {
+        String sql = "SELECT event_id, image_hash FROM event "
+                + "WHERE image_hash IS NOT NULL AND image_placeholder IS NULL AND event_id > ? ORDER BY event_id LIMIT ?";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            Map<Long, String> images = new LinkedHashMap<>();
+            while (rs.next()) images.put(rs.getLong(1), rs.getString(2));
+            return images;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao buscar imagens sem prévia: " + ex.getMessage(), ex);
+        }
+    }
+
+    /** Grava a prévia só se a imagem do evento ainda for a de imageHash (um upload concorrente vence) */
+    public boolean updatePlaceholder(Long id, String imageHash, String placeholder) {
+        String sql = "UPDATE event SET image_placeholder = ? WHERE event_id = ? AND image_hash = ?";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, placeholder);
+            stmt.setLong(2, id);
+            stmt.setString(3, imageHash);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao gravar prévia da imagem: " + ex.getMessage(), ex);
+        } finally {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    /** Descarta o evento do cache de findById (escritas feitas fora deste repository, ex.: inscrições em quant) */
+    public void evict(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    /** Remover evento definitivamente */
+    public void delete(Long id) {
+        String sql = "DELETE FROM event WHERE event_id = ?";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, id);
+            stmt.executeUpdate();
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao deletar evento: " + ex.getMessage(), ex);
+        } finally {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    // ===== Helpers =====
+
+    /** Violação de Event_event_name_key vira DuplicateKeyException com a mensagem da validação do EventService */
+    private RuntimeException duplicateOr(SQLException ex, Event e, String context) {
+        if (UniqueViolation.of(ex, "Event_event_name_key")) {
+            return new DuplicateKeyException("Nome de evento já existente: " + e.getEvent_name(), ex);
+        }
+        return new RuntimeException(context + ex.getMessage(), ex);
+    }
+
+    // cópia rasa (lista de apresentadores copiada) para que alterações do chamador não atinjam o cache
+    private static Event copyOf(Event e) {
+        Event c = new Event(e.getEvent_id(), e.getCreator_id(), e.getEvent_name(), e.getIs_EAD(), e.getAddress(),
+                e.getEvent_date(), e.getBuy_time_limit(), e.getLot_quantity(), e.getQuantity(), e.getDescription(),
+                e.getPresenters() != null ? new ArrayList<>(e.getPresenters()) : null);
+        c.setImage_hash(e.getImage_hash());
+        c.setImage_placeholder(e.getImage_placeholder());
+        c.setCreatedAt(e.getCreatedAt());
+        c.setUpdatedAt(e.getUpdatedAt());
+        return c;
     }
 
     private boolean toPrimitive(Boolean b) {
@@ -286,6 +705,11 @@ public class EventRepository {
         return (dt == null) ? null : Timestamp.valueOf(dt);
     }
 
+    /** Escapa curingas do LIKE para que o termo seja tratado literalmente (ESCAPE padrão: barra invertida) */
+    private String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     private String nullIfBlank(String s) {
         if (s == null) return null;
         String t = s.trim();
@@ -0,0 +1,75 @@
+package com.gerenciador.eventos.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import com.gerenciador.eventos.POJO.Event;
+
+/**
+ * Mapeador da tabela event. As colunas image_data, image_hash e image_placeholder são opcionais: consultas
+ * que não as selecionam (ou bancos antigos sem a coluna) simplesmente não preenchem a imagem.
+ */
+final class EventRowMapper extends RowMapper<Event> {
+
+    static final int EVENT_ID = 0;
+    static final int CREATOR_ID = 1;
+    static final int EVENT_NAME = 2;
+    static final int EAD = 3;
+    static final int ADDRESS = 4;
+    static final int EVENT_DATE = 5;
+    static final int BUY_TIME_LIMIT = 6;
+    static final int CAPACITY = 7;
+    static final int QUANT = 8;
+    static final int DESCRIPTION = 9;
+    static final int IMAGE_DATA = 10;
+    static final int CREATED_AT = 11;
+    static final int UPDATED_AT = 12;
+    static final int IMAGE_HASH = 13;
+    static final int IMAGE_PLACEHOLDER = 14;
+
+    EventRowMapper() {
+        super("event_id", "creator_id", "event_name", "ead", "address", "event_date", "buy_time_limit",
+              "capacity", "quant", "description", "image_data", "created_at", "updated_at", "image_hash",
+              "image_placeholder");
+    }
+
+    @Override
+    Event map(ResultSet rs, int[] c, Event e) throws SQLException {
+        if (c[EVENT_ID] != ABSENT) e.setEvent_id(rs.getLong(c[EVENT_ID]));
+        if (c[CREATOR_ID] != ABSENT) e.setCreator_id(rs.getLong(c[CREATOR_ID]));
+        if (c[EVENT_NAME] != ABSENT) e.setEvent_name(rs.getString(c[EVENT_NAME]));
+        if (c[EAD] != ABSENT) e.setIs_EAD(rs.getBoolean(c[EAD]));
+        if (c[ADDRESS] != ABSENT) e.setAddress(rs.getString(c[ADDRESS]));
+        if (c[EVENT_DATE] != ABSENT) {
+            LocalDateTime ed = getDateTime(rs, c[EVENT_DATE]);
+            if (ed != null) e.setEvent_date(ed);
+        }
+        if (c[BUY_TIME_LIMIT] != ABSENT) {
+            LocalDateTime btl = getDateTime(rs, c[BUY_TIME_LIMIT]);
+            if (btl != null) e.setBuy_time_limit(btl);
+        }
+        if (c[CAPACITY] != ABSENT) {
+            Integer capacity = getNullableInt(rs, c[CAPACITY]);
+            if (capacity != null) e.setLot_quantity(capacity);
+        }
+        if (c[QUANT] != ABSENT) e.setQuantity(rs.getInt(c[QUANT]));
+        if (c[DESCRIPTION] != ABSENT) e.setDescription(rs.getString(c[DESCRIPTION]));
+        if (c[IMAGE_DATA] != ABSENT) {
+            byte[] imageData = rs.getBytes(c[IMAGE_DATA]);
+            if (imageData != null) e.setImage_data(imageData);
+        }
+        if (c[IMAGE_HASH] != ABSENT) e.setImage_hash(rs.getString(c[IMAGE_HASH]));
+        if (c[IMAGE_PLACEHOLDER] != ABSENT) e.setImage_placeholder(rs.getString(c[IMAGE_PLACEHOLDER]));
+        if (c[CREATED_AT] != ABSENT) {
+            LocalDateTime createdAt = getDateTime(rs, c[CREATED_AT]);
+            if (createdAt != null) e.setCreatedAt(createdAt);
+        }
+        if (c[UPDATED_AT] != ABSENT) {
+            LocalDateTime updatedAt = getDateTime(rs, c[UPDATED_AT]);
+            if (updatedAt != null) e.setUpdatedAt(updatedAt);
+        }
+        // presenters não está no schema -> manter lista vazia ou a recebida externamente
+        return e;
+    }
+}
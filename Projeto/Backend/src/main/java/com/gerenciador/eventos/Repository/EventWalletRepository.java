@@ -5,13 +5,20 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 
 import com.gerenciador.eventos.DatabaseConnection;
+import com.gerenciador.eventos.POJO.EnrollmentStatus;
 import com.gerenciador.eventos.POJO.EventWallet;
 
 /**
@@ -20,27 +27,235 @@ import com.gerenciador.eventos.POJO.EventWallet;
 @Repository
 public class EventWalletRepository {
 
+    private static final EventWalletRowMapper MAPPER = new EventWalletRowMapper();
+
     @Autowired
     private DatabaseConnection databaseConnection;
 
-    /** Inserir vínculo user-event */
+    /** Inserir vínculo user-event (duplicidade detectada pela PK WalletEvent_pkey) */
     public EventWallet save(EventWallet ew) {
         if (ew.getUserId() == null || ew.getEventId() == null) {
             throw new IllegalArgumentException("user_id e event_id são obrigatórios");
         }
-        String sql = "INSERT INTO walletevent (user_id, event_id) VALUES (?, ?)";
+        String sql = "INSERT INTO walletevent (user_id, event_id) VALUES (?, ?) "
+                + "RETURNING created_at, updated_at";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, ew.getUserId());
             stmt.setLong(2, ew.getEventId());
-            stmt.executeUpdate();
-            fetchTimestamps(ew);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                MAPPER.map(sql, rs, ew);
+            }
             return ew;
         } catch (SQLException ex) {
+            if (UniqueViolation.of(ex, "WalletEvent_pkey")) {
+                throw new DuplicateKeyException("Vínculo já existente", ex);
+            }
             throw new RuntimeException("Erro ao vincular evento à carteira: " + ex.getMessage(), ex);
         }
     }
 
+    /**
+     * Inscrição atômica em uma ida ao banco: ocupa a vaga (quant + 1, só se houver vaga e as inscrições
+     * estiverem abertas em now) e insere o vínculo na mesma instrução. Concorrência:
+     * - o UPDATE trava a linha do evento; quem espera reavalia quant < capacity na versão nova (sem overbooking);
+     * - inscrição repetida em paralelo viola WalletEvent_pkey e a instrução inteira é desfeita (a vaga volta).
+     * A última parte lê o estado anterior à instrução para explicar a recusa quando nada foi gravado.
+     * Preenche createdAt/updatedAt de ew quando a inscrição é feita.
+     */
+    public EnrollmentStatus enroll(EventWallet ew, LocalDateTime now) {
+        String sql = "WITH seat AS ("
+                + "UPDATE event SET quant = quant + 1 "
+                + "WHERE event_id = ? AND buy_time_limit >= ? AND (capacity IS NULL OR quant < capacity) "
+                + "AND EXISTS (SELECT 1 FROM mywallet WHERE user_id = ?) "
+                + "AND NOT EXISTS (SELECT 1 FROM walletevent WHERE user_id = ? AND event_id = ?) "
+                + "RETURNING event_id), "
+                + "link AS (INSERT INTO walletevent (user_id, event_id) SELECT ?, event_id FROM seat "
+                + "RETURNING created_at, updated_at) "
+                + "SELECT link.created_at, link.updated_at, link.created_at IS NOT NULL AS enrolled, "
+                + "e.event_id IS NOT NULL AS event_exists, "
+                + "EXISTS (SELECT 1 FROM mywallet WHERE user_id = ?) AS wallet_exists, "
+                + "EXISTS (SELECT 1 FROM walletevent WHERE user_id = ? AND event_id = ?) AS link_exists, "
+                + "e.buy_time_limit >= ? AS sales_open, "
+                + "(e.capacity IS NULL OR e.quant < e.capacity) AS seat_available "
+                + "FROM (SELECT 1) one LEFT JOIN link ON true LEFT JOIN event e ON e.event_id = ?";
+        long userId = ew.getUserId();
+        long eventId = ew.getEventId();
+        Timestamp at = Timestamp.valueOf(now);
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int idx = 1;
+            stmt.setLong(idx++, eventId);
+            stmt.setTimestamp(idx++, at);
+            stmt.setLong(idx++, userId);
+            stmt.setLong(idx++, userId);
+            stmt.setLong(idx++, eventId);
+            stmt.setLong(idx++, userId);
+            stmt.setLong(idx++, userId);
+            stmt.setLong(idx++, userId);
+            stmt.setLong(idx++, eventId);
+            stmt.setTimestamp(idx++, at);
+            stmt.setLong(idx++, eventId);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            if (rs.getBoolean("enrolled")) {
+                MAPPER.map(sql, rs, ew);
+                return EnrollmentStatus.ENROLLED;
+            }
+            if (!rs.getBoolean("event_exists")) return EnrollmentStatus.EVENT_NOT_FOUND;
+            if (!rs.getBoolean("wallet_exists")) return EnrollmentStatus.WALLET_NOT_FOUND;
+            if (rs.getBoolean("link_exists")) return EnrollmentStatus.DUPLICATE;
+            if (!rs.getBoolean("sales_open")) return EnrollmentStatus.SALES_CLOSED;
+            // sem vaga, ou a última foi ocupada por uma inscrição concorrente durante a espera pelo lock
+            return EnrollmentStatus.SOLD_OUT;
+        } catch (SQLException ex) {
+            if (UniqueViolation.of(ex, "WalletEvent_pkey")) return EnrollmentStatus.DUPLICATE;
+            throw new RuntimeException("Erro ao inscrever no evento: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Inserir vários vínculos com JDBC batch em uma única transação (usado pelo seed em lote).
+     * Tudo ou nada: em caso de erro o lote é desfeito e a exceção propagada.
+     */
+    public int saveAll(List<EventWallet> links) {
+        if (links.isEmpty()) return 0;
+        String sql = "INSERT INTO walletevent (user_id, event_id) VALUES (?, ?)";
+        try (Connection conn = databaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (EventWallet ew : links) {
+                    stmt.setLong(1, ew.getUserId());
+                    stmt.setLong(2, ew.getEventId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return links.size();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao vincular eventos em lote: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Aplicar vínculos já concedidos fora do banco (SeatInventory) em uma instrução: insere os que ainda não
+     * existem, com o created_at da concessão, e soma em quant de cada evento apenas os inseridos.
+     * Idempotente: reaplicar o mesmo lote (reprocessamento do journal) não duplica vínculos nem vagas.
+     * Violações do schema (usuário/evento inexistente) viram DataIntegrityViolationException.
+     * @return quantidade de vínculos inseridos
+     */
+    public int applyGrants(List<EventWallet> links) {
+        if (links.isEmpty()) return 0;
+        String sql = "WITH ins AS (INSERT INTO walletevent (user_id, event_id, created_at, updated_at) "
+                + "SELECT user_id, event_id, created_at, created_at "
+                + "FROM unnest(?::bigint[], ?::bigint[], ?::timestamp[]) AS g(user_id, event_id, created_at) "
+                + "ON CONFLICT DO NOTHING RETURNING event_id), "
+                + "seats AS (UPDATE event SET quant = quant + c.n "
+                + "FROM (SELECT event_id, count(*) AS n FROM ins GROUP BY event_id) c "
+                + "WHERE event.event_id = c.event_id RETURNING c.n) "
+                + "SELECT coalesce(sum(n), 0) FROM seats";
+        Long[] userIds = new Long[links.size()];
+        Long[] eventIds = new Long[links.size()];
+        Timestamp[] createdAt = new Timestamp[links.size()];
+        for (int i = 0; i < links.size(); i++) {
+            EventWallet ew = links.get(i);
+            userIds[i] = ew.getUserId();
+            eventIds[i] = ew.getEventId();
+            createdAt[i] = ew.getCreatedAt() != null ? Timestamp.valueOf(ew.getCreatedAt()) : null;
+        }
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", userIds));
+            stmt.setArray(2, conn.createArrayOf("bigint", eventIds));
+            stmt.setArray(3, conn.createArrayOf("timestamp", createdAt));
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException ex) {
+            if (ex.getSQLState() != null && ex.getSQLState().startsWith("23")) {
+                // FK/NOT NULL: algum vínculo do lote não é aceito pelo schema
+                throw new DataIntegrityViolationException("Inscrição recusada pelo banco: " + ex.getMessage(), ex);
+            }
+            throw new RuntimeException("Erro ao aplicar inscrições em lote: " + ex.getMessage(), ex);
+        }
+    }
+
+    /** user_id de todos os inscritos no evento */
+    public Set<Long> findUserIdsByEvent(Long eventId) {
+        String sql = "SELECT user_id FROM walletevent WHERE event_id = ?";
+        Set<Long> out = new HashSet<>();
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, eventId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                out.add(rs.getLong(1));
+            }
+            return out;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao listar inscritos do evento: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Pares (user_id, event_id) da lista que já estão vinculados, como List.of(userId, eventId).
+     * Uma consulta para o lote inteiro.
+     */
+    public Set<List<Long>> findExistingLinks(List<EventWallet> links) {
+        Set<List<Long>> found = new HashSet<>();
+        if (links.isEmpty()) return found;
+        String sql = "SELECT w.user_id, w.event_id FROM walletevent w "
+                + "JOIN unnest(?::bigint[], ?::bigint[]) AS p(user_id, event_id) "
+                + "ON w.user_id = p.user_id AND w.event_id = p.event_id";
+        Long[] userIds = new Long[links.size()];
+        Long[] eventIds = new Long[links.size()];
+        for (int i = 0; i < links.size(); i++) {
+            userIds[i] = links.get(i).getUserId();
+            eventIds[i] = links.get(i).getEventId();
+        }
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", userIds));
+            stmt.setArray(2, conn.createArrayOf("bigint", eventIds));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                found.add(List.of(rs.getLong(1), rs.getLong(2)));
+            }
+            return found;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao verificar vínculos carteira-evento: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Flags de validação de um vínculo em uma única consulta:
+     * wallet_exists, event_exists e link_exists.
+     */
+    public Map<String, Boolean> findValidationFlags(Long userId, Long eventId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM mywallet WHERE user_id = ?) AS wallet_exists, "
+                + "EXISTS (SELECT 1 FROM event WHERE event_id = ?) AS event_exists, "
+                + "EXISTS (SELECT 1 FROM walletevent WHERE user_id = ? AND event_id = ?) AS link_exists";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setObject(1, userId, java.sql.Types.BIGINT);
+            stmt.setObject(2, eventId, java.sql.Types.BIGINT);
+            stmt.setObject(3, userId, java.sql.Types.BIGINT);
+            stmt.setObject(4, eventId, java.sql.Types.BIGINT);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return RowMapper.readFlags(rs);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao validar vínculo carteira-evento: " + ex.getMessage(), ex);
+        }
+    }
+
     /** Verificar se o vínculo já existe */
     public boolean exists(Long userId, Long eventId) {
         String sql = "SELECT COUNT(*) FROM walletevent WHERE user_id = ? AND event_id = ?";
@@ -63,8 +278,9 @@ public class EventWalletRepository {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, userId);
             ResultSet rs = stmt.executeQuery();
+            int[] layout = MAPPER.layout(sql, rs);
             while (rs.next()) {
-                out.add(map(rs));
+                out.add(MAPPER.map(rs, layout, new EventWallet()));
             }
             return out;
         } catch (SQLException ex) {
@@ -72,46 +288,20 @@ public class EventWalletRepository {
         }
     }
 
-    /** Apagar vínculo */
-    public void delete(Long userId, Long eventId) {
-        String sql = "DELETE FROM walletevent WHERE user_id = ? AND event_id = ?";
+    /**
+     * Apagar vínculo e devolver a vaga (quant - 1) na mesma instrução.
+     * @return false se o vínculo não existia
+     */
+    public boolean delete(Long userId, Long eventId) {
+        String sql = "WITH link AS (DELETE FROM walletevent WHERE user_id = ? AND event_id = ? RETURNING event_id) "
+                + "UPDATE event SET quant = greatest(quant - 1, 0) WHERE event_id IN (SELECT event_id FROM link)";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, userId);
             stmt.setLong(2, eventId);
-            stmt.executeUpdate();
+            return stmt.executeUpdate() > 0;
         } catch (SQLException ex) {
             throw new RuntimeException("Erro ao apagar vínculo carteira-evento: " + ex.getMessage(), ex);
         }
     }
-
-    // ===== Helpers =====
-    private void fetchTimestamps(EventWallet ew) {
-        String sql = "SELECT created_at, updated_at FROM walletevent WHERE user_id = ? AND event_id = ?";
-        try (Connection conn = databaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setLong(1, ew.getUserId());
-            stmt.setLong(2, ew.getEventId());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                Timestamp c = rs.getTimestamp("created_at");
-                if (c != null) ew.setCreatedAt(c.toLocalDateTime());
-                Timestamp u = rs.getTimestamp("updated_at");
-                if (u != null) ew.setUpdatedAt(u.toLocalDateTime());
-            }
-        } catch (SQLException ex) {
-            System.err.println("Aviso: não foi possível buscar timestamps do vínculo: " + ex.getMessage());
-        }
-    }
-
-    private EventWallet map(ResultSet rs) throws SQLException {
-        EventWallet ew = new EventWallet();
-        ew.setUserId(rs.getLong("user_id"));
-        ew.setEventId(rs.getLong("event_id"));
-        Timestamp c = rs.getTimestamp("created_at");
-        if (c != null) ew.setCreatedAt(c.toLocalDateTime());
-        Timestamp u = rs.getTimestamp("updated_at");
-        if (u != null) ew.setUpdatedAt(u.toLocalDateTime());
-        return ew;
-    }
 }
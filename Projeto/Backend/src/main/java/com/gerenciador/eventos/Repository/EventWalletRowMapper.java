@@ -0,0 +1,37 @@
+package com.gerenciador.eventos.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import com.gerenciador.eventos.POJO.EventWallet;
+
+/**
+ * Mapeador da tabela de junção walletevent.
+ */
+final class EventWalletRowMapper extends RowMapper<EventWallet> {
+
+    static final int USER_ID = 0;
+    static final int EVENT_ID = 1;
+    static final int CREATED_AT = 2;
+    static final int UPDATED_AT = 3;
+
+    EventWalletRowMapper() {
+        super("user_id", "event_id", "created_at", "updated_at");
+    }
+
+    @Override
+    EventWallet map(ResultSet rs, int[] c, EventWallet ew) throws SQLException {
+        if (c[USER_ID] != ABSENT) ew.setUserId(rs.getLong(c[USER_ID]));
+        if (c[EVENT_ID] != ABSENT) ew.setEventId(rs.getLong(c[EVENT_ID]));
+        if (c[CREATED_AT] != ABSENT) {
+            LocalDateTime createdAt = getDateTime(rs, c[CREATED_AT]);
+            if (createdAt != null) ew.setCreatedAt(createdAt);
+        }
+        if (c[UPDATED_AT] != ABSENT) {
+            LocalDateTime updatedAt = getDateTime(rs, c[UPDATED_AT]);
+            if (updatedAt != null) ew.setUpdatedAt(updatedAt);
+        }
+        return ew;
+    }
+}
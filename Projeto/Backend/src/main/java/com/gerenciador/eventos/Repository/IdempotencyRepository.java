@@ -0,0 +1,70 @@
+package com.gerenciador.eventos.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.gerenciador.eventos.DatabaseConnection;
+
+/**
+ * Repository JDBC para a tabela idempotency_key: respostas guardadas de POSTs com Idempotency-Key
+ * (persistência opcional do IdempotentRequests, idempotency.persist).
+ */
+@Repository
+public class IdempotencyRepository {
+
+    @Autowired
+    private DatabaseConnection databaseConnection;
+
+    /**
+     * Resposta guardada; requestHash identifica o corpo do pedido original e headers traz os demais
+     * headers da resposta, uma linha "Nome: valor" por valor (null = nenhum)
+     */
+    public record StoredResponse(String requestHash, int status, String contentType, String headers, byte[] body) {
+    }
+
+    /** Resposta gravada depois de notBefore, ou null */
+    public StoredResponse find(String key, LocalDateTime notBefore) {
+        String sql = "SELECT request_hash, status, content_type, headers, body FROM idempotency_key "
+                + "WHERE idempotency_key = ? AND created_at >= ?";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, key);
+            stmt.setTimestamp(2, Timestamp.valueOf(notBefore));
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) return null;
+            return new StoredResponse(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getString(4), rs.getBytes(5));
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao buscar resposta idempotente: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Grava a resposta (a primeira gravada para a chave prevalece) e apaga, na mesma instrução,
+     * as respostas criadas antes de expiredBefore.
+     */
+    public void save(String key, StoredResponse response, LocalDateTime expiredBefore) {
+        String sql = "WITH expired AS (DELETE FROM idempotency_key WHERE created_at < ?) "
+                + "INSERT INTO idempotency_key (idempotency_key, request_hash, status, content_type, headers, body) "
+                + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (idempotency_key) DO NOTHING";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(expiredBefore));
+            stmt.setString(2, key);
+            stmt.setString(3, response.requestHash());
+            stmt.setInt(4, response.status());
+            stmt.setString(5, response.contentType());
+            stmt.setString(6, response.headers());
+            stmt.setBytes(7, response.body());
+            stmt.executeUpdate();
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao gravar resposta idempotente: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.gerenciador.eventos.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Armazenamento de imagens em disco endereçado pelo conteúdo: o nome do arquivo é o SHA-256 dos bytes.
+ *
+ * Layout: {images.storeDir}/ab/cd/abcd...64 hex....jpg (dois níveis para não ter diretórios enormes);
+ * variantes redimensionadas ficam ao lado do original como {hash}-{variante}.jpg.
+ * Arquivos são imutáveis: a gravação vai para um temporário no mesmo diretório e é renomeada de forma
+ * atômica, então um leitor nunca vê arquivo pela metade. Conteúdo repetido cai no mesmo arquivo.
+ * Arquivos que deixaram de ser referenciados (imagem trocada) não são apagados aqui.
+ */
+@Component
+public class ImageFileStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${images.storeDir}")
+    private String storeDir;
+
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(storeDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    /** Grava o conteúdo (se ainda não existir) e devolve o hash que o identifica */
+    public String put(byte[] content) {
+        String hash = sha256(content);
+        write(path(hash), content);
+        return hash;
+    }
+
+    /** Grava uma variante do original identificado por hash (o conteúdo é derivado dele, também imutável) */
+    public void putVariant(String hash, String variant, byte[] content) {
+        write(variantPath(hash, variant), content);
+    }
+
+    /** Caminho do arquivo de um hash (não verifica se existe) */
+    public Path path(String hash) {
+        return dir(hash).resolve(hash + ".jpg");
+    }
+
+    /** Caminho de uma variante do original identificado por hash (não verifica se existe) */
+    public Path variantPath(String hash, String variant) {
+        return dir(hash).resolve(hash + "-" + variant + ".jpg");
+    }
+
+    private Path dir(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Hash de imagem inválido: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4));
+    }
+
+    private static void write(Path target, byte[] content) {
+        if (Files.exists(target)) return;
+        String name = target.getFileName().toString();
+        try {
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), name, ".tmp");
+            try {
+                Files.write(tmp, content);
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+                // mesmo conteúdo gravado em paralelo (ou FS sem rename atômico sobre destino existente)
+                if (!Files.exists(target)) Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gravar imagem: " + e.getMessage(), e);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
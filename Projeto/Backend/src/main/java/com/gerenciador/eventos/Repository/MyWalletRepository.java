@@ -4,7 +4,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -18,6 +20,8 @@ import com.gerenciador.eventos.POJO.MyWallet;
 @Repository
 public class MyWalletRepository {
 
+    private static final MyWalletRowMapper MAPPER = new MyWalletRowMapper();
+
     @Autowired
     private DatabaseConnection databaseConnection;
 
@@ -41,6 +45,24 @@ public class MyWalletRepository {
         return findByUserId(userId);
     }
 
+    /** user_ids da lista que já possuem carteira (uma consulta para o lote inteiro) */
+    public Set<Long> findExistingUserIds(Collection<Long> userIds) {
+        Set<Long> found = new HashSet<>();
+        if (userIds.isEmpty()) return found;
+        String sql = "SELECT user_id FROM mywallet WHERE user_id = ANY(?)";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", userIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                found.add(rs.getLong(1));
+            }
+            return found;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Erro ao verificar carteiras: " + ex.getMessage(), ex);
+        }
+    }
+
     /** Buscar carteira por user_id */
     public MyWallet findByUserId(Long userId) {
         String sql = "SELECT * FROM mywallet WHERE user_id = ?";
@@ -49,7 +71,7 @@ public class MyWalletRepository {
             stmt.setLong(1, userId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return map(rs);
+                return MAPPER.map(sql, rs, new MyWallet());
             }
             return null;
         } catch (SQLException ex) {
@@ -81,15 +103,4 @@ public class MyWalletRepository {
             throw new RuntimeException("Erro ao deletar carteira: " + ex.getMessage(), ex);
         }
     }
-
-
-    private MyWallet map(ResultSet rs) throws SQLException {
-        MyWallet w = new MyWallet();
-        w.setUserId(rs.getLong("user_id"));
-        Timestamp c = rs.getTimestamp("created_at");
-        if (c != null) w.setCreatedAt(c.toLocalDateTime());
-        Timestamp u = rs.getTimestamp("updated_at");
-        if (u != null) w.setUpdatedAt(u.toLocalDateTime());
-        return w;
-    }
 }
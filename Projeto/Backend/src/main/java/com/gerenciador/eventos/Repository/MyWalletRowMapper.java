@@ -0,0 +1,35 @@
+package com.gerenciador.eventos.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import com.gerenciador.eventos.POJO.MyWallet;
+
+/**
+ * Mapeador da tabela mywallet.
+ */
+final class MyWalletRowMapper extends RowMapper<MyWallet> {
+
+    static final int USER_ID = 0;
+    static final int CREATED_AT = 1;
+    static final int UPDATED_AT = 2;
+
+    MyWalletRowMapper() {
+        super("user_id", "created_at", "updated_at");
+    }
+
+    @Override
+    MyWallet map(ResultSet rs, int[] c, MyWallet w) throws SQLException {
+        if (c[USER_ID] != ABSENT) w.setUserId(rs.getLong(c[USER_ID]));
+        if (c[CREATED_AT] != ABSENT) {
+            LocalDateTime createdAt = getDateTime(rs, c[CREATED_AT]);
+            if (createdAt != null) w.setCreatedAt(createdAt);
+        }
+        if (c[UPDATED_AT] != ABSENT) {
+            LocalDateTime updatedAt = getDateTime(rs, c[UPDATED_AT]);
+            if (updatedAt != null) w.setUpdatedAt(updatedAt);
+        }
+        return w;
+    }
+}
@@ -0,0 +1,45 @@
+package com.gerenciador.eventos.Repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+/**
+ * Leitura read-through dos caches dos repositories sem fazer JDBC dentro de lock.
+ *
+ * Cache.get(key, loader) do Caffeine roda o loader dentro de ConcurrentHashMap.compute, que segura o
+ * monitor (synchronized) do bucket: com virtual threads a consulta ao banco prenderia a carrier thread.
+ * Aqui o compute só registra um CompletableFuture vazio; quem o registrou faz a consulta fora do lock e
+ * completa o future, e leitores concorrentes da mesma chave esperam por ele (park, sem pinning).
+ * Uma invalidação durante a carga remove o future, então o valor carregado não volta ao cache.
+ * Valores null e falhas não ficam no cache.
+ */
+final class ReadThrough {
+
+    private ReadThrough() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> entry = cache.get(key, (k, executor) -> mine);
+        if (entry == mine) {
+            try {
+                V value = loader.apply(key);
+                mine.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            // falha da carga feita por outra thread: repassa a exceção original
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+}
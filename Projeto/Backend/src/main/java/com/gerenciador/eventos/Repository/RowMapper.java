@@ -0,0 +1,92 @@
+package com.gerenciador.eventos.Repository;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base dos mapeadores ResultSet -> POJO usados pelos repositories.
+ *
+ * Cada mapeador declara as colunas que conhece (na ordem das constantes de índice da subclasse).
+ * Para cada formato de consulta (o texto SQL) os índices JDBC dessas colunas são resolvidos uma
+ * única vez a partir do ResultSetMetaData e guardados em cache; o mapeamento das linhas usa então
+ * apenas getters posicionais. Colunas ausentes no formato ficam com índice 0 e são ignoradas, de
+ * modo que o mesmo mapeador serve às leituras completas e ao RETURNING parcial das escritas.
+ */
+abstract class RowMapper<T> {
+
+    /** Índice usado para colunas que não fazem parte do formato da consulta */
+    static final int ABSENT = 0;
+
+    private final String[] columns;
+    private final ConcurrentHashMap<String, int[]> layouts = new ConcurrentHashMap<>();
+
+    protected RowMapper(String... columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Índices JDBC (1-based) das colunas conhecidas para a consulta informada.
+     * Resolve pelo metadata apenas na primeira execução de cada SQL.
+     */
+    int[] layout(String sql, ResultSet rs) throws SQLException {
+        int[] layout = layouts.get(sql);
+        if (layout == null) {
+            layout = resolve(rs.getMetaData());
+            layouts.putIfAbsent(sql, layout);
+        }
+        return layout;
+    }
+
+    /** Mapeia a linha atual resolvendo (ou reutilizando) o layout do SQL */
+    T map(String sql, ResultSet rs, T target) throws SQLException {
+        return map(rs, layout(sql, rs), target);
+    }
+
+    /** Mapeia a linha atual com um layout já resolvido (use em laços sobre várias linhas) */
+    abstract T map(ResultSet rs, int[] layout, T target) throws SQLException;
+
+    private int[] resolve(ResultSetMetaData meta) throws SQLException {
+        int[] layout = new int[columns.length];
+        int count = meta.getColumnCount();
+        for (int i = 1; i <= count; i++) {
+            String label = meta.getColumnLabel(i).toLowerCase(Locale.ROOT);
+            for (int c = 0; c < columns.length; c++) {
+                if (layout[c] == ABSENT && columns[c].equals(label)) {
+                    layout[c] = i;
+                    break;
+                }
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Lê a linha atual como flags booleanas indexadas pelo rótulo da coluna
+     * (usado pelas consultas de validação que devolvem vários EXISTS em uma linha).
+     */
+    static Map<String, Boolean> readFlags(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        Map<String, Boolean> flags = new HashMap<>();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            flags.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), rs.getBoolean(i));
+        }
+        return flags;
+    }
+
+    // ===== Getters posicionais =====
+
+    static LocalDateTime getDateTime(ResultSet rs, int index) throws SQLException {
+        return rs.getObject(index, LocalDateTime.class);
+    }
+
+    static Integer getNullableInt(ResultSet rs, int index) throws SQLException {
+        int v = rs.getInt(index);
+        return rs.wasNull() ? null : v;
+    }
+}
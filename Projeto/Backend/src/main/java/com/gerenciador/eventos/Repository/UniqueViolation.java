@@ -0,0 +1,27 @@
+package com.gerenciador.eventos.Repository;
+
+import java.sql.SQLException;
+
+/**
+ * Identifica violações de UNIQUE/PRIMARY KEY do PostgreSQL (SQLState 23505) pelo nome da constraint.
+ *
+ * As escritas confiam nas constraints do schema em vez de consultar duplicados antes do INSERT/UPDATE;
+ * cada repository traduz a constraint violada em DuplicateKeyException com a mensagem do campo, que o
+ * service repassa como IllegalArgumentException (DataAccessException atravessa a tradução de exceções
+ * do @Repository sem ser reembrulhada). O nome da constraint aparece entre aspas na mensagem do servidor (inglês ou pt_BR)
+ * (o driver é dependência de runtime, por isso não usamos PSQLException/ServerErrorMessage).
+ */
+final class UniqueViolation {
+
+    static final String SQL_STATE = "23505";
+
+    private UniqueViolation() {
+    }
+
+    /** Verdadeiro se ex é uma violação de unicidade da constraint informada */
+    static boolean of(SQLException ex, String constraint) {
+        return SQL_STATE.equals(ex.getSQLState())
+                && ex.getMessage() != null
+                && ex.getMessage().contains("\"" + constraint + "\"");
+    }
+}
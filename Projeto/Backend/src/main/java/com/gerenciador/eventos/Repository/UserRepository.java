@@ -5,17 +5,30 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
 import com.gerenciador.eventos.DatabaseConnection;
 import com.gerenciador.eventos.POJO.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
  * Repository - responsável pelo acesso ao banco de dados
@@ -24,77 +37,174 @@ import com.gerenciador.eventos.POJO.User;
 @Repository
 public class UserRepository {
 
+    /** Colunas geradas pelo banco, devolvidas pelas escritas via RETURNING */
+    private static final String GENERATED_COLUMNS = "user_id, created_at, updated_at";
+
+    private static final UserRowMapper MAPPER = new UserRowMapper();
+
     @Autowired
     private DatabaseConnection databaseConnection;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${users.cache.maxSize}")
+    private long cacheMaxSize;
+
+    @Value("${users.cache.ttlSeconds}")
+    private long cacheTtlSeconds;
+
+    /**
+     * Cache de usuários por user_id (findById/findByEmail, para /bff/users/me e afins) e índice email -> user_id.
+     * As entradas nunca guardam o hash da senha: login e troca de senha leem direto do banco
+     * (findCredentials*). update/softDelete invalidam as entradas (id, email antigo e novo) de forma síncrona.
+     * Leituras via ReadThrough: a consulta roda fora do lock do cache (sem pinning com virtual threads).
+     * Contadores em /actuator/metrics/cache.* (tags cache=users e cache=users.email)
+     */
+    private AsyncCache<Long, User> byId;
+    private AsyncCache<String, Long> emailIndex;
+
+    @PostConstruct
+    void initCache() {
+        byId = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .buildAsync();
+        emailIndex = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, emailIndex, "users.email");
+    }
+
     /**
      * Salvar usuário no banco
+     * Unicidade de nome, email e telefone garantida pelas constraints (sem consulta prévia)
      */
     public User save(User user) {
         // Adequa aos campos reais do esquema: user_name, email, fone, password, birthdate, admin
         String sql = "INSERT INTO users (user_name, email, fone, password, birthdate, admin) " +
-                     "VALUES (?, ?, ?, ?, ?, ?)";
+                     "VALUES (?, ?, ?, ?, ?, ?) RETURNING " + GENERATED_COLUMNS;
         
         try (Connection conn = databaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            // Valores com defaults para respeitar NOT NULL do schema atual
-            String nameVal = user.getName();
-            String emailVal = user.getEmail();
-            String foneVal = user.getFone();
-            if (foneVal == null || foneVal.isBlank()) {
-                foneVal = (user.getFone() != null && !user.getFone().isBlank()) ? user.getFone() : ("fone" + System.currentTimeMillis());
-            }
-            String passwordVal = (user.getPassword() != null && !user.getPassword().isBlank()) ? user.getPassword() : "password";
-            Date birthdateVal = toSqlDate(user.getBirthDate());
-            if (birthdateVal == null) {
-                birthdateVal = Date.valueOf(LocalDate.now());
-            }
-            boolean adminVal = toPrimitive(user.getIsAdmin());
-
-            stmt.setString(1, nameVal);
-            stmt.setString(2, emailVal);
-            stmt.setString(3, foneVal);
-            stmt.setString(4, passwordVal);
-            stmt.setDate(5, birthdateVal);
-            stmt.setBoolean(6, adminVal);
-            stmt.executeUpdate();
-
-            // Recupera o ID gerado pelo banco (user_id)
-            ResultSet rs = stmt.getGeneratedKeys();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindInsert(stmt, user, "fone" + UUID.randomUUID());
+
+            // ID (user_id) e timestamps gerados pelo banco voltam no mesmo round trip
+            ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                user.setId(rs.getLong(1));
+                MAPPER.map(sql, rs, user);
             }
 
-            // Busca timestamps gerados pelo banco
-            fetchTimestamps(user);
-
             return user;
             
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao salvar usuário: " + e.getMessage(), e);
+            throw duplicateOr(e, user, "Erro ao salvar usuário: ");
         }
     }
 
     /**
-     * Buscar timestamps gerados pelo banco (created_at, updated_at)
+     * Inserir vários usuários com JDBC batch em uma única transação (usado pelo seed em lote).
+     * Tudo ou nada: em caso de erro o lote é desfeito e a exceção propagada.
+     * Não devolve os ids gerados; a carteira de cada usuário continua sendo criada pelo trigger.
      */
-    private void fetchTimestamps(User user) {
-        if (user.getId() == null) return;
-        
-        String sql = "SELECT created_at, updated_at FROM users WHERE user_id = ?";
+    public int saveAll(List<User> users) {
+        if (users.isEmpty()) return 0;
+        String sql = "INSERT INTO users (user_name, email, fone, password, birthdate, admin) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = databaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                String fonePrefix = "fone" + UUID.randomUUID() + "-";
+                for (int i = 0; i < users.size(); i++) {
+                    bindInsert(stmt, users.get(i), fonePrefix + i);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return users.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao salvar usuários em lote: " + e.getMessage(), e);
+        }
+    }
+
+    /** Nomes da lista que já estão cadastrados (uma consulta para o lote inteiro) */
+    public Set<String> findExistingNames(Collection<String> names) {
+        return findExisting("user_name", names);
+    }
+
+    /** Emails da lista que já estão cadastrados */
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return findExisting("email", emails);
+    }
+
+    /** Telefones da lista que já estão cadastrados */
+    public Set<String> findExistingFones(Collection<String> fones) {
+        return findExisting("fone", fones);
+    }
+
+    /** Ids da lista que existem em users */
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        Set<Long> found = new HashSet<>();
+        if (ids.isEmpty()) return found;
+        String sql = "SELECT user_id FROM users WHERE user_id = ANY(?)";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setLong(1, user.getId());
+            stmt.setArray(1, conn.createArrayOf("bigint", ids.toArray()));
             ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                user.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+            while (rs.next()) {
+                found.add(rs.getLong(1));
+            }
+            return found;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar usuários: " + e.getMessage(), e);
+        }
+    }
+
+    // column vem apenas das constantes acima, nunca do cliente
+    private Set<String> findExisting(String column, Collection<String> values) {
+        Set<String> found = new HashSet<>();
+        if (values.isEmpty()) return found;
+        String sql = "SELECT " + column + " FROM users WHERE " + column + " = ANY(?)";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("text", values.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                found.add(rs.getString(1));
             }
+            return found;
         } catch (SQLException e) {
-            // Não crítico, apenas loga
-            System.err.println("Aviso: não foi possível buscar timestamps: " + e.getMessage());
+            throw new RuntimeException("Erro ao verificar " + column + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Flags de duplicidade de um cadastro em uma única consulta:
+     * name_taken, email_taken, fone_taken. Valor nulo nunca conta como duplicado.
+     */
+    public Map<String, Boolean> findDuplicateFlags(String name, String email, String fone) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE user_name = ?) AS name_taken, "
+                + "EXISTS (SELECT 1 FROM users WHERE email = ?) AS email_taken, "
+                + "EXISTS (SELECT 1 FROM users WHERE fone = ?) AS fone_taken";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, name);
+            stmt.setString(2, email);
+            stmt.setString(3, fone);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return RowMapper.readFlags(rs);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar duplicidade de usuário: " + e.getMessage(), e);
         }
     }
 
@@ -150,9 +260,42 @@ public class UserRepository {
     }
 
     /**
-     * Buscar usuário por ID
+     * Buscar usuário por ID (read-through no cache).
+     * O usuário devolvido não traz o hash da senha; quem precisa dele usa findCredentialsById.
      */
     public User findById(Long id) {
+        User cached = ReadThrough.get(byId, id, this::loadWithoutPassword);
+        return cached != null ? copyOf(cached) : null;
+    }
+
+    /**
+     * Buscar usuário por email (read-through no cache, sem o hash da senha).
+     * Resolve email -> user_id pelo índice e reaproveita a entrada de findById. Quando o índice não tem o
+     * email, a linha inteira vem numa consulta só e já é a resposta. update/softDelete invalidam o email
+     * antigo e o novo; a conferência do email cobre o que ainda estiver desatualizado (ex.: outra instância).
+     */
+    public User findByEmail(String email) {
+        User[] loaded = new User[1];
+        Long id = ReadThrough.get(emailIndex, email, e -> {
+            loaded[0] = findCredentialsByEmail(e);
+            return loaded[0] != null ? loaded[0].getId() : null;
+        });
+        if (loaded[0] != null) return copyOf(loaded[0]);
+        User cached = id != null ? ReadThrough.get(byId, id, this::loadWithoutPassword) : null;
+        if (cached != null && email.equals(cached.getEmail())) {
+            return copyOf(cached);
+        }
+        // índice desatualizado (email alterado): descarta e consulta o banco
+        emailIndex.synchronous().invalidate(email);
+        User user = findCredentialsByEmail(email);
+        return user != null ? copyOf(user) : null;
+    }
+
+    /**
+     * Buscar usuário por ID direto no banco, com o hash da senha (troca de senha).
+     * Nunca passa pelo cache.
+     */
+    public User findCredentialsById(Long id) {
         String sql = "SELECT * FROM users WHERE user_id = ?";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -161,7 +304,7 @@ public class UserRepository {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return mapResultSetToUser(rs);
+                return MAPPER.map(sql, rs, new User());
             }
             return null;
             
@@ -171,9 +314,10 @@ public class UserRepository {
     }
 
     /**
-     * Buscar usuário por email
+     * Buscar usuário por email direto no banco, com o hash da senha (login).
+     * Nunca passa pelo cache.
      */
-    public User findByEmail(String email) {
+    public User findCredentialsByEmail(String email) {
         String sql = "SELECT * FROM users WHERE email = ?";
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -182,7 +326,7 @@ public class UserRepository {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return mapResultSetToUser(rs);
+                return MAPPER.map(sql, rs, new User());
             }
             return null;
             
@@ -191,16 +335,24 @@ public class UserRepository {
         }
     }
 
+    private User loadWithoutPassword(Long id) {
+        User user = findCredentialsById(id);
+        return user != null ? copyOf(user) : null;
+    }
+
     /**
      * Atualizar usuário
+     * Campos não informados (senha, data de nascimento, admin) preservam o valor atual via COALESCE.
      */
     public User update(User user) {
-        // Buscar usuário existente para preservar senha
-        User existing = findById(user.getId());
-        
-        String sql = "UPDATE users SET user_name = ?, email = ?, fone = ?, password = ?, " +
-                     "birthdate = ?, admin = ? WHERE user_id = ?";
-        
+        // old traz o email de antes da alteração (linha travada) para invalidar o índice de email
+        String sql = "UPDATE users u SET user_name = ?, email = ?, fone = ?, password = COALESCE(?, u.password), " +
+                     "birthdate = COALESCE(?, u.birthdate), admin = COALESCE(?, u.admin) " +
+                     "FROM (SELECT user_id, email FROM users WHERE user_id = ? FOR UPDATE) old " +
+                     "WHERE u.user_id = old.user_id " +
+                     "RETURNING u.user_id, u.created_at, u.updated_at, old.email AS old_email";
+        String oldEmail = null;
+
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -208,25 +360,46 @@ public class UserRepository {
             stmt.setString(2, user.getEmail());
             stmt.setString(3, user.getFone());
             // Preservar senha existente se não foi fornecida nova senha
-            stmt.setString(4, user.getPassword() != null ? user.getPassword() : existing.getPassword());
-            Date birthdateVal = toSqlDate(user.getBirthDate());
-            if (birthdateVal == null && existing.getBirthDate() != null) {
-                birthdateVal = toSqlDate(existing.getBirthDate());
-            } else if (birthdateVal == null) {
-                birthdateVal = Date.valueOf(LocalDate.now());
+            stmt.setString(4, user.getPassword());
+            stmt.setDate(5, toSqlDate(user.getBirthDate()));
+            if (user.getIsAdmin() != null) {
+                stmt.setBoolean(6, toPrimitive(user.getIsAdmin()));
+            } else {
+                stmt.setNull(6, java.sql.Types.BOOLEAN);
             }
-            stmt.setDate(5, birthdateVal);
-            stmt.setBoolean(6, user.getIsAdmin() != null ? toPrimitive(user.getIsAdmin()) : toPrimitive(existing.getIsAdmin()));
             stmt.setLong(7, user.getId());
-            stmt.executeUpdate();
 
-            // Atualiza timestamp
-            fetchTimestamps(user);
-            
-            return user;
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                throw new RuntimeException("Usuário não encontrado com ID: " + user.getId());
+            }
+            oldEmail = rs.getString("old_email");
+            return MAPPER.map(sql, rs, user);
             
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao atualizar usuário: " + e.getMessage(), e);
+            throw duplicateOr(e, user, "Erro ao atualizar usuário: ");
+        } finally {
+            // conexão já devolvida (autocommit): a próxima leitura recarrega do banco
+            byId.synchronous().invalidate(user.getId());
+            invalidateEmails(oldEmail, user.getEmail());
+        }
+    }
+
+    /**
+     * Trocar o hash da senha somente se o atual ainda for expectedHash (rehash no login).
+     * Se a senha mudou nesse meio tempo, nada é gravado. O cache não guarda senha, então não há o que invalidar.
+     * @return true se o hash foi gravado
+     */
+    public boolean updatePasswordHash(Long id, String expectedHash, String newHash) {
+        String sql = "UPDATE users SET password = ? WHERE user_id = ? AND password = ?";
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, newHash);
+            stmt.setLong(2, id);
+            stmt.setString(3, expectedHash);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao atualizar senha: " + e.getMessage(), e);
         }
     }
 
@@ -235,47 +408,82 @@ public class UserRepository {
      */
     public void softDelete(Long id) {
         // Marca como inativo na coluna isActive (schema atual)
-        String sql = "UPDATE users SET isActive = false WHERE user_id = ?";
+        String sql = "UPDATE users SET isActive = false WHERE user_id = ? RETURNING email";
+        String email = null;
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            stmt.executeUpdate();
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) email = rs.getString(1);
             
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao deletar usuário: " + e.getMessage(), e);
+        } finally {
+            byId.synchronous().invalidate(id);
+            invalidateEmails(email);
         }
     }
 
     /**
-     * Mapear ResultSet para objeto User
+     * Preenche os parâmetros do INSERT em users aplicando os defaults exigidos pelo NOT NULL do schema.
+     * @param defaultFone telefone usado quando o usuário não informa um (a coluna é única)
      */
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setId(rs.getLong("user_id"));
-        user.setName(rs.getString("user_name"));
-        user.setEmail(rs.getString("email"));
-        user.setFone(rs.getString("fone"));
-        user.setPassword(rs.getString("password"));
-        // birthdate é DATE; converter para string ISO yyyy-MM-dd
-        Date bd = rs.getDate("birthdate");
-        if (bd != null) {
-            user.setBirthDate(bd.toString());
+    private void bindInsert(PreparedStatement stmt, User user, String defaultFone) throws SQLException {
+        String foneVal = user.getFone();
+        if (foneVal == null || foneVal.isBlank()) {
+            foneVal = defaultFone;
         }
-        user.setIsAdmin(rs.getBoolean("admin"));
-        user.setIsActive(rs.getBoolean("isactive"));
-        
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            user.setCreatedAt(createdAt.toLocalDateTime());
+        String passwordVal = (user.getPassword() != null && !user.getPassword().isBlank()) ? user.getPassword() : "password";
+        Date birthdateVal = toSqlDate(user.getBirthDate());
+        if (birthdateVal == null) {
+            birthdateVal = Date.valueOf(LocalDate.now());
         }
-        
-        Timestamp updatedAt = rs.getTimestamp("updated_at");
-        if (updatedAt != null) {
-            user.setUpdatedAt(updatedAt.toLocalDateTime());
+
+        stmt.setString(1, user.getName());
+        stmt.setString(2, user.getEmail());
+        stmt.setString(3, foneVal);
+        stmt.setString(4, passwordVal);
+        stmt.setDate(5, birthdateVal);
+        stmt.setBoolean(6, toPrimitive(user.getIsAdmin()));
+    }
+
+    /**
+     * Violação das constraints UNIQUE de users vira DuplicateKeyException com a mensagem da validação
+     * do UserService; demais erros viram RuntimeException com o contexto informado.
+     */
+    private RuntimeException duplicateOr(SQLException e, User user, String context) {
+        if (UniqueViolation.of(e, "Users_user_name_key")) {
+            return new DuplicateKeyException("Nome já existente: " + user.getName(), e);
         }
-        
-        return user;
+        if (UniqueViolation.of(e, "Users_email_key")) {
+            return new DuplicateKeyException("Email já existente: " + user.getEmail(), e);
+        }
+        if (UniqueViolation.of(e, "Users_fone_key")) {
+            return new DuplicateKeyException("Telefone já existente: " + user.getFone(), e);
+        }
+        return new RuntimeException(context + e.getMessage(), e);
+    }
+
+    private void invalidateEmails(String... emails) {
+        for (String email : emails) {
+            if (email != null) emailIndex.synchronous().invalidate(email);
+        }
+    }
+
+    // cópia sem o hash da senha: é o que fica no cache e o que as leituras cacheadas devolvem
+    private static User copyOf(User u) {
+        User c = new User();
+        c.setId(u.getId());
+        c.setName(u.getName());
+        c.setEmail(u.getEmail());
+        c.setFone(u.getFone());
+        c.setBirthDate(u.getBirthDate());
+        c.setIsAdmin(u.getIsAdmin());
+        c.setIsActive(u.getIsActive());
+        c.setCreatedAt(u.getCreatedAt());
+        c.setUpdatedAt(u.getUpdatedAt());
+        return c;
     }
 
     private boolean toPrimitive(Boolean b) {
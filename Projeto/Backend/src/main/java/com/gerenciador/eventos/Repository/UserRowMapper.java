@@ -0,0 +1,55 @@
+package com.gerenciador.eventos.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import com.gerenciador.eventos.POJO.User;
+
+/**
+ * Mapeador da tabela users.
+ */
+final class UserRowMapper extends RowMapper<User> {
+
+    static final int USER_ID = 0;
+    static final int USER_NAME = 1;
+    static final int EMAIL = 2;
+    static final int FONE = 3;
+    static final int PASSWORD = 4;
+    static final int BIRTHDATE = 5;
+    static final int ADMIN = 6;
+    static final int IS_ACTIVE = 7;
+    static final int CREATED_AT = 8;
+    static final int UPDATED_AT = 9;
+
+    UserRowMapper() {
+        super("user_id", "user_name", "email", "fone", "password", "birthdate",
+              "admin", "isactive", "created_at", "updated_at");
+    }
+
+    @Override
+    User map(ResultSet rs, int[] c, User user) throws SQLException {
+        if (c[USER_ID] != ABSENT) user.setId(rs.getLong(c[USER_ID]));
+        if (c[USER_NAME] != ABSENT) user.setName(rs.getString(c[USER_NAME]));
+        if (c[EMAIL] != ABSENT) user.setEmail(rs.getString(c[EMAIL]));
+        if (c[FONE] != ABSENT) user.setFone(rs.getString(c[FONE]));
+        if (c[PASSWORD] != ABSENT) user.setPassword(rs.getString(c[PASSWORD]));
+        if (c[BIRTHDATE] != ABSENT) {
+            // birthdate é DATE; converter para string ISO yyyy-MM-dd
+            Date bd = rs.getDate(c[BIRTHDATE]);
+            if (bd != null) user.setBirthDate(bd.toString());
+        }
+        if (c[ADMIN] != ABSENT) user.setIsAdmin(rs.getBoolean(c[ADMIN]));
+        if (c[IS_ACTIVE] != ABSENT) user.setIsActive(rs.getBoolean(c[IS_ACTIVE]));
+        if (c[CREATED_AT] != ABSENT) {
+            LocalDateTime createdAt = getDateTime(rs, c[CREATED_AT]);
+            if (createdAt != null) user.setCreatedAt(createdAt);
+        }
+        if (c[UPDATED_AT] != ABSENT) {
+            LocalDateTime updatedAt = getDateTime(rs, c[UPDATED_AT]);
+            if (updatedAt != null) user.setUpdatedAt(updatedAt);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,54 @@
+package com.gerenciador.eventos.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.gerenciador.eventos.POJO.Event;
+
+/**
+ * Posição da paginação por keyset na ordenação (event_date, event_id).
+ * Para o cliente o cursor é um token opaco: base64url de "event_date|event_id".
+ */
+public final class EventCursor {
+
+    private final LocalDateTime eventDate;
+    private final long eventId;
+
+    public EventCursor(LocalDateTime eventDate, long eventId) {
+        this.eventDate = eventDate;
+        this.eventId = eventId;
+    }
+
+    /** Cursor que aponta para logo após o evento informado */
+    public static EventCursor after(Event e) {
+        return new EventCursor(e.getEvent_date(), e.getEvent_id());
+    }
+
+    public LocalDateTime getEventDate() { return eventDate; }
+
+    public long getEventId() { return eventId; }
+
+    public String encode() {
+        String raw = eventDate + "|" + eventId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica o token recebido do cliente.
+     * @return null para token ausente (primeira página)
+     * @throws IllegalArgumentException se o token não for um cursor válido
+     */
+    public static EventCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep <= 0) throw new IllegalArgumentException("Cursor inválido");
+            return new EventCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
@@ -1,14 +1,34 @@
 package com.gerenciador.eventos.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import com.gerenciador.eventos.POJO.CursorPage;
 import com.gerenciador.eventos.POJO.Event;
+import com.gerenciador.eventos.POJO.ImageSize;
 import com.gerenciador.eventos.POJO.User;
+import com.gerenciador.eventos.POJO.UserEvent;
 import com.gerenciador.eventos.Repository.EventRepository;
+import com.gerenciador.eventos.Repository.ImageFileStore;
 import com.gerenciador.eventos.Repository.UserRepository;
 
 /**
@@ -17,19 +37,115 @@ import com.gerenciador.eventos.Repository.UserRepository;
 @Service
 public class EventService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_SEARCH_LIMIT = 50;
+
+    /** Eventos lidos por consulta na migração das imagens legadas */
+    private static final int LEGACY_IMAGE_BATCH = 100;
+
     @Autowired
     private EventRepository eventRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ImageFileStore imageFileStore;
+
+    @Autowired
+    private ImageVariants imageVariants;
+
+    @Autowired
+    private ImageCodec imageCodec;
+
+    /** Executor de tarefas async do Spring (virtual threads com spring.threads.virtual.enabled) */
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${images.migrateOnStartup}")
+    private boolean migrateImagesOnStartup;
+
+    /** true enquanto pode haver imagem em image_data: findImageFile migra sob demanda */
+    private volatile boolean legacyImagesPending = true;
+
     public Event createEvent(Event e) {
         // aplicar defaults dependentes de campos obrigatórios
         applyDefaults(e);
         validateRequired(e);
         validateRules(e);
-        validateDuplicatesOnCreate(e);
-        return eventRepository.save(e);
+        storeImage(e);
+        // nome duplicado é barrado pela constraint UNIQUE no INSERT
+        return saveUnique(e);
+    }
+
+    /**
+     * Criar um lote de eventos (seed em lote) com as mesmas regras de createEvent.
+     * Existência dos criadores e unicidade dos nomes são verificadas com uma consulta cada para o lote
+     * inteiro e a gravação é um JDBC batch em uma transação.
+     * Cada evento rejeitado é entregue a onFailure com a mesma exceção que createEvent lançaria.
+     * @return quantidade de eventos gravados
+     */
+    public int createEvents(List<Event> events, BiConsumer<Event, RuntimeException> onFailure) {
+        List<Event> valid = new ArrayList<>();
+        Set<Long> creatorIds = new HashSet<>();
+        Set<String> eventNames = new HashSet<>();
+        for (Event e : events) {
+            try {
+                applyDefaults(e);
+                validateRequired(e);
+                validateFields(e);
+                valid.add(e);
+                creatorIds.add(e.getCreator_id());
+                eventNames.add(e.getEvent_name());
+            } catch (IllegalArgumentException ex) {
+                onFailure.accept(e, ex);
+            }
+        }
+
+        Set<Long> creators;
+        Set<String> names;
+        try {
+            creators = userRepository.findExistingIds(creatorIds);
+            // já existentes no banco; os aceitos no próprio lote entram no mesmo conjunto
+            names = eventRepository.findExistingNames(eventNames);
+        } catch (RuntimeException ex) {
+            // sem as consultas o lote inteiro fica sem gravar: cada linha é reportada
+            valid.forEach(e -> onFailure.accept(e, ex));
+            return 0;
+        }
+        List<Event> accepted = new ArrayList<>();
+        for (Event e : valid) {
+            if (!creators.contains(e.getCreator_id())) {
+                onFailure.accept(e, new IllegalArgumentException("creator_id não existe"));
+            } else if (!names.add(e.getEvent_name())) {
+                onFailure.accept(e, new IllegalArgumentException("Nome de evento já existente: " + e.getEvent_name()));
+            } else {
+                try {
+                    storeImage(e);
+                    accepted.add(e);
+                } catch (RuntimeException ex) {
+                    onFailure.accept(e, ex);
+                }
+            }
+        }
+
+        try {
+            return eventRepository.saveAll(accepted);
+        } catch (RuntimeException ex) {
+            // lote desfeito (ex.: nome criado em paralelo): grava um a um para apontar quem falhou
+            int created = 0;
+            for (Event e : accepted) {
+                try {
+                    saveUnique(e);
+                    created++;
+                } catch (RuntimeException rowError) {
+                    onFailure.accept(e, rowError);
+                }
+            }
+            return created;
+        }
     }
 
     public Event updateEvent(Event e) {
@@ -39,8 +155,14 @@ public class EventService {
         // não forçamos default em update; somente validações
         validateRequired(e);
         validateRules(e);
-        validateDuplicatesOnUpdate(e);
-        return eventRepository.update(e);
+        storeImage(e);
+        // quant não é alterado pelo cliente; nome duplicado (constraint UNIQUE) e capacity abaixo dos
+        // inscritos são barrados no próprio UPDATE
+        try {
+            return eventRepository.update(e);
+        } catch (DataIntegrityViolationException ex) {
+            throw new IllegalArgumentException(ex.getMessage());
+        }
     }
 
     public Event findById(Long id) {
@@ -49,6 +171,90 @@ public class EventService {
         return e;
     }
 
+    /**
+     * Arquivo JPG da imagem do evento no ImageFileStore (o nome é o hash, usado como ETag).
+     * O hash vem do cache de findById, sem ir ao banco. Lança RuntimeException se o evento não existir
+     * ou não tiver imagem.
+     */
+    public Path findImageFile(Long id) {
+        return imageFileStore.path(findImageHash(id));
+    }
+
+    /**
+     * Arquivo da variante pedida (size null = original). Enquanto a variante não foi gerada
+     * devolve o original e agenda a geração.
+     */
+    public Path findImageFile(Long id, ImageSize size) {
+        String hash = findImageHash(id);
+        Path variant = size != null ? imageVariants.find(hash, size) : null;
+        return variant != null ? variant : imageFileStore.path(hash);
+    }
+
+    public void updateImage(Long id, byte[] imageData) {
+        if (imageData == null || imageData.length == 0) throw new IllegalArgumentException("Imagem vazia");
+        String hash = imageFileStore.put(imageData);
+        if (!eventRepository.updateImageHash(id, hash, placeholderOf(imageData))) throw new RuntimeException("Evento não encontrado: id=" + id);
+        imageVariants.schedule(hash);
+    }
+
+    /**
+     * Ao subir a aplicação (images.migrateOnStartup), migra as imagens legadas e calcula as prévias que
+     * faltam em segundo plano, uma tarefa depois da outra: a subida não espera a tabela inteira e
+     * findImageFile migra sob demanda o que ainda faltar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startImageMigration() {
+        if (!migrateImagesOnStartup) return;
+        taskExecutor.execute(() -> {
+            migrateLegacyImages();
+            backfillImagePlaceholders();
+        });
+    }
+
+    /**
+     * Leva para o ImageFileStore as imagens que ainda estão em image_data (bytea), em lotes por keyset.
+     * Enquanto não termina sem falhas, findImageFile continua migrando sob demanda.
+     */
+    public void migrateLegacyImages() {
+        boolean failed = false;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = eventRepository.findLegacyImageIds(afterId, LEGACY_IMAGE_BATCH)).isEmpty()) {
+            for (Long id : ids) {
+                try {
+                    migrateImage(id);
+                } catch (RuntimeException ex) {
+                    failed = true; // fica em image_data; nova tentativa sob demanda
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        legacyImagesPending = failed;
+    }
+
+    /**
+     * Calcula a prévia (image_placeholder) das imagens gravadas antes de ela existir, em lotes por keyset.
+     * Roda em segundo plano depois da migração (startImageMigration); imagens que não decodificam
+     * ficam sem prévia e são puladas.
+     */
+    public void backfillImagePlaceholders() {
+        long afterId = 0;
+        Map<Long, String> images;
+        while (!(images = eventRepository.findImagesWithoutPlaceholder(afterId, LEGACY_IMAGE_BATCH)).isEmpty()) {
+            for (Map.Entry<Long, String> image : images.entrySet()) {
+                try {
+                    String placeholder = placeholderOf(Files.readAllBytes(imageFileStore.path(image.getValue())));
+                    if (placeholder != null) {
+                        eventRepository.updatePlaceholder(image.getKey(), image.getValue(), placeholder);
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    // arquivo ausente/ilegível: o card continua sem prévia
+                }
+                afterId = image.getKey();
+            }
+        }
+    }
+
     public Event findByName(String name) {
         Event e = eventRepository.findByName(name);
         if (e == null) throw new RuntimeException("Evento não encontrado: name=" + name);
@@ -86,19 +292,68 @@ public class EventService {
             sb.append("buy_time_limit não pode ser após event_date. ");
         if (e.getLot_quantity() != null && e.getLot_quantity() < 0) sb.append("capacity (lot_quantity) não pode ser negativa. ");
         if (e.getQuantity() < 0) sb.append("quant (quantity) não pode ser negativo. ");
-        // unicidade do nome
-        if (e.getEvent_name() != null && !e.getEvent_name().isBlank() && eventRepository.nameExists(e.getEvent_name())) {
+        // unicidade do nome e existência do criador em uma única consulta
+        String name = (e.getEvent_name() != null && !e.getEvent_name().isBlank()) ? e.getEvent_name() : null;
+        Map<String, Boolean> flags = eventRepository.findValidationFlags(name, e.getCreator_id());
+        if (flags.get("name_taken")) {
             sb.append("Nome de evento já existente: ").append(e.getEvent_name()).append(". ");
         }
-        // criador existente
-        if (e.getCreator_id() != null) {
-            User u = userRepository.findById(e.getCreator_id());
-            if (u == null) sb.append("creator_id não existe em users. ");
+        if (e.getCreator_id() != null && !flags.get("creator_exists")) {
+            sb.append("creator_id não existe em users. ");
         }
         return sb.toString().trim();
     }
 
+    // ======= imagens =======
+    // imagem recebida junto com o evento vai para o disco; o evento guarda só o hash
+    private void storeImage(Event e) {
+        byte[] data = e.getImage_data();
+        if (data != null && data.length > 0) {
+            e.setImage_hash(imageFileStore.put(data));
+            e.setImage_placeholder(placeholderOf(data));
+            imageVariants.schedule(e.getImage_hash());
+        }
+        e.setImage_data(null);
+    }
+
+    /** image_hash do evento (projeção DETAIL, cacheada), migrando a imagem legada se preciso */
+    private String findImageHash(Long id) {
+        String hash = findById(id).getImage_hash();
+        if (hash == null && legacyImagesPending) hash = migrateImage(id);
+        if (hash == null) throw new RuntimeException("Imagem não encontrada: id=" + id);
+        return hash;
+    }
+
+    /** Prévia inline da imagem (listas); null se não der para decodificar, o card fica só com a imagem */
+    private String placeholderOf(byte[] data) {
+        try {
+            return imageCodec.placeholder(data);
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /** Grava a imagem legada do evento no disco e troca image_data pelo hash; null se não houver imagem */
+    private String migrateImage(Long id) {
+        byte[] legacy = eventRepository.findImageById(id);
+        if (legacy == null || legacy.length == 0) return null;
+        String hash = imageFileStore.put(legacy);
+        if (eventRepository.migrateImage(id, hash, placeholderOf(legacy))) return hash;
+        // upload concorrente já gravou outra imagem: vale a do banco
+        Event current = eventRepository.findById(id);
+        return current != null ? current.getImage_hash() : null;
+    }
+
     // ======= validações privadas =======
+    // INSERT único; violação de Event_event_name_key volta como erro de validação
+    private Event saveUnique(Event e) {
+        try {
+            return eventRepository.save(e);
+        } catch (DuplicateKeyException ex) {
+            throw new IllegalArgumentException(ex.getMessage());
+        }
+    }
+
     private void validateRequired(Event e) {
         if (e.getCreator_id() == null) throw new IllegalArgumentException("creator_id é obrigatório");
         if (e.getEvent_name() == null || e.getEvent_name().isBlank()) throw new IllegalArgumentException("Nome do evento é obrigatório");
@@ -110,17 +365,22 @@ public class EventService {
     }
 
     private void validateRules(Event e) {
+        validateFields(e);
+        // valida existência do criador
+        if (e.getCreator_id() != null) {
+            User u = userRepository.findById(e.getCreator_id());
+            if (u == null) throw new IllegalArgumentException("creator_id não existe");
+        }
+    }
+
+    // regras que não dependem do banco
+    private void validateFields(Event e) {
         if (e.getBuy_time_limit() != null && e.getEvent_date() != null && e.getBuy_time_limit().isAfter(e.getEvent_date()))
             throw new IllegalArgumentException("buy_time_limit não pode ser após event_date");
         if (e.getLot_quantity() != null && e.getLot_quantity() < 0)
             throw new IllegalArgumentException("capacity (lot_quantity) não pode ser negativa");
         if (e.getQuantity() < 0)
             throw new IllegalArgumentException("quant (quantity) não pode ser negativo");
-        // valida existência do criador
-        if (e.getCreator_id() != null) {
-            User u = userRepository.findById(e.getCreator_id());
-            if (u == null) throw new IllegalArgumentException("creator_id não existe");
-        }
     }
 
     // Defaults de domínio aplicados no POJO (sem depender do banco)
@@ -136,44 +396,109 @@ public class EventService {
             throw new IllegalArgumentException("Nome de evento já existente: " + e.getEvent_name());
     }
 
-    private void validateDuplicatesOnUpdate(Event e) {
-        if (e.getEvent_name() != null && !e.getEvent_name().isBlank()) {
-            Event existing = eventRepository.findByName(e.getEvent_name());
-            if (existing != null && !existing.getEvent_id().equals(e.getEvent_id())) {
-                throw new IllegalArgumentException("Nome de evento já existente: " + e.getEvent_name());
-            }
-        }
+    public List<Event> searchEvents(String term) {
+        return searchEvents(term, DEFAULT_SEARCH_LIMIT);
     }
 
-    public List<Event> searchEvents(String term) {
-        // If no term provided, return all events
-        List<Event> all = eventRepository.findAll();
+    /**
+     * Busca no banco por nome/descrição, ranqueada e limitada.
+     * Sem termo devolve os próximos eventos por data, a partir de agora (as telas que chamam sem termo não
+     * paginam: eventos passados ocupariam a lista e esconderiam os novos).
+     */
+    public List<Event> searchEvents(String term, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
         if (term == null || term.isBlank()) {
-            return all;
+            // keyset a partir de (agora, 0): event_date >= agora, pelo mesmo índice da listagem
+            return eventRepository.findPage(LocalDateTime.now(), 0L, size);
         }
+        return eventRepository.search(term.trim(), size);
+    }
 
-        String q = term.toLowerCase();
-        List<Event> result = new ArrayList<>();
-        for (Event e : all) {
-            if (e.getEvent_name() != null && e.getEvent_name().toLowerCase().contains(q)) {
-                result.add(e);
-            }
+    /**
+     * Lista eventos por data (keyset em event_date, event_id).
+     * @param cursor token devolvido em nextCursor pela página anterior (nulo para a primeira)
+     */
+    public CursorPage<Event> listEvents(String cursor, int limit) {
+        EventCursor after = EventCursor.decode(cursor);
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // busca um a mais só para saber se existe próxima página
+        List<Event> rows = eventRepository.findPage(
+                after != null ? after.getEventDate() : null,
+                after != null ? after.getEventId() : null,
+                size + 1);
+        return toPage(rows, size);
+    }
+
+    /** Entrega todos os eventos (ordenados por data) ao consumer sem carregar a lista em memória */
+    public void streamEvents(Consumer<Event> consumer) {
+        eventRepository.streamAll(consumer);
+    }
+
+    /**
+     * Eventos de um criador por data, paginados por keyset como em listEvents.
+     * @param cursor token devolvido em nextCursor pela página anterior (nulo para a primeira)
+     */
+    public CursorPage<Event> findByCreatorId(Long creatorId, String cursor, int limit) {
+        if (creatorId == null) {
+            throw new IllegalArgumentException("creator_id é obrigatório");
         }
-        return result;
+        EventCursor after = EventCursor.decode(cursor);
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Event> rows = eventRepository.findPageByCreatorId(
+                creatorId,
+                after != null ? after.getEventDate() : null,
+                after != null ? after.getEventId() : null,
+                size + 1);
+        return toPage(rows, size);
+    }
+
+    /** Todos os eventos de um criador, por data; percorre as páginas de findByCreatorId */
+    public List<Event> findAllByCreatorId(Long creatorId) {
+        List<Event> events = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Event> page = findByCreatorId(creatorId, cursor, MAX_PAGE_SIZE);
+            events.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return events;
     }
 
-    public List<Event> findByCreatorId(Long creatorId) {
+    /**
+     * "Meus eventos": inscritos e criados pelo usuário numa só página (uma consulta), por data,
+     * paginados por keyset como em listEvents.
+     */
+    public CursorPage<UserEvent> findForUser(Long userId, String cursor, int limit) {
+        if (userId == null) {
+            throw new IllegalArgumentException("user_id é obrigatório");
+        }
+        EventCursor after = EventCursor.decode(cursor);
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<UserEvent> rows = eventRepository.findPageForUser(
+                userId,
+                after != null ? after.getEventDate() : null,
+                after != null ? after.getEventId() : null,
+                size + 1);
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<UserEvent> page = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(page, EventCursor.after(page.get(size - 1).getEvent()).encode());
+    }
+
+    public long countByCreatorId(Long creatorId) {
         if (creatorId == null) {
-            return new ArrayList<>();
-        }
-        
-        List<Event> all = eventRepository.findAll();
-        List<Event> result = new ArrayList<>();
-        for (Event e : all) {
-            if (e.getCreator_id() != null && e.getCreator_id().equals(creatorId)) {
-                result.add(e);
-            }
+            throw new IllegalArgumentException("creator_id é obrigatório");
+        }
+        return eventRepository.countByCreatorId(creatorId);
+    }
+
+    /** Corta a linha extra buscada (size + 1) e gera o cursor da próxima página quando ela existe */
+    private CursorPage<Event> toPage(List<Event> rows, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
         }
-        return result;
+        List<Event> page = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(page, EventCursor.after(page.get(size - 1)).encode());
     }
 }
@@ -1,16 +1,25 @@
 package com.gerenciador.eventos.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
-import com.gerenciador.eventos.POJO.Event;
+import com.gerenciador.eventos.POJO.EnrollmentStatus;
 import com.gerenciador.eventos.POJO.EventWallet;
-import com.gerenciador.eventos.POJO.MyWallet;
+import com.gerenciador.eventos.POJO.QueueStatus;
+import com.gerenciador.eventos.POJO.User;
 import com.gerenciador.eventos.Repository.EventRepository;
 import com.gerenciador.eventos.Repository.EventWalletRepository;
 import com.gerenciador.eventos.Repository.MyWalletRepository;
+import com.gerenciador.eventos.Repository.UserRepository;
 
 @Service
 public class EventWalletService {
@@ -21,25 +30,132 @@ public class EventWalletService {
     private MyWalletRepository myWalletRepository;
     @Autowired
     private EventRepository eventRepository;
+    @Autowired
+    private SeatInventory seatInventory;
+    @Autowired
+    private WaitingRoom waitingRoom;
+    @Autowired
+    private UserRepository userRepository;
 
-    public EventWallet addLink(EventWallet ew) {
+    /**
+     * Inscreve o usuário no evento: ocupa uma vaga (capacity/quant) e grava o vínculo de forma atômica,
+     * numa única instrução no banco. Respeita buy_time_limit; capacity nula = sem limite.
+     * Preenche os timestamps de ew quando o resultado é ENROLLED.
+     * Eventos de venda relâmpago (enrollment.inventory.eventIds) são atendidos em memória pelo SeatInventory.
+     * Eventos com fila de espera exigem senha: use enroll(ew, subject, queueToken).
+     */
+    public EnrollmentStatus enroll(EventWallet ew) {
+        return enroll(ew, null, null);
+    }
+
+    /**
+     * Como enroll, passando pela fila de espera quando o evento tem uma (WaitingRoom): a senha precisa
+     * estar admitida, ser do subject (usuário autenticado) e o subject só inscreve a si mesmo.
+     * A senha é consumida quando a inscrição dá certo.
+     * @throws NotYourTurnException senha ainda não admitida
+     * @throws IllegalArgumentException senha ausente/inválida ou userId de outro usuário
+     */
+    public EnrollmentStatus enroll(EventWallet ew, String subject, String queueToken) {
         validateBasic(ew);
-        // existência
-        MyWallet wallet = myWalletRepository.findByUserId(ew.getUserId());
-        if (wallet == null) throw new IllegalArgumentException("Carteira do usuário não encontrada");
-        Event event = eventRepository.findById(ew.getEventId());
-        if (event == null) throw new IllegalArgumentException("Evento não encontrado");
-        // duplicidade
-        if (eventWalletRepository.exists(ew.getUserId(), ew.getEventId()))
-            throw new IllegalArgumentException("Vínculo já existente");
-
-        return eventWalletRepository.save(ew);
+        boolean queued = waitingRoom.guards(ew.getEventId());
+        if (queued) admit(ew, subject, queueToken);
+        EnrollmentStatus status;
+        if (seatInventory.handles(ew.getEventId())) {
+            status = seatInventory.enroll(ew, LocalDateTime.now());
+        } else {
+            status = eventWalletRepository.enroll(ew, LocalDateTime.now());
+            if (status == EnrollmentStatus.ENROLLED) eventRepository.evict(ew.getEventId());
+        }
+        if (queued && status == EnrollmentStatus.ENROLLED) waitingRoom.consume(subject, ew.getEventId());
+        return status;
+    }
+
+    /** Como enroll, mas qualquer recusa vira IllegalArgumentException com a mensagem do resultado */
+    public EventWallet addLink(EventWallet ew) {
+        return addLink(ew, null, null);
+    }
+
+    /** Como enroll(ew, subject, queueToken), mas qualquer recusa vira IllegalArgumentException */
+    public EventWallet addLink(EventWallet ew, String subject, String queueToken) {
+        EnrollmentStatus status = enroll(ew, subject, queueToken);
+        if (status != EnrollmentStatus.ENROLLED) throw new IllegalArgumentException(status.getMessage());
+        return ew;
+    }
+
+    /**
+     * Criar um lote de vínculos (seed em lote) com as regras de existência e duplicidade de addLink.
+     * Não ocupa vagas nem olha buy_time_limit: o seed informa quant de cada evento explicitamente.
+     * Carteiras, eventos e vínculos existentes são verificados com uma consulta cada para o lote
+     * inteiro e a gravação é um JDBC batch em uma transação.
+     * Cada vínculo rejeitado é entregue a onFailure com a mesma exceção que addLink lançaria.
+     * @return quantidade de vínculos gravados
+     */
+    public int addLinks(List<EventWallet> links, BiConsumer<EventWallet, RuntimeException> onFailure) {
+        List<EventWallet> valid = new ArrayList<>();
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> eventIds = new HashSet<>();
+        for (EventWallet ew : links) {
+            try {
+                validateBasic(ew);
+                valid.add(ew);
+                userIds.add(ew.getUserId());
+                eventIds.add(ew.getEventId());
+            } catch (IllegalArgumentException ex) {
+                onFailure.accept(ew, ex);
+            }
+        }
+
+        Set<Long> wallets;
+        Set<Long> events;
+        Set<List<Long>> linked;
+        try {
+            wallets = myWalletRepository.findExistingUserIds(userIds);
+            events = eventRepository.findExistingIds(eventIds);
+            // já vinculados no banco; os aceitos no próprio lote entram no mesmo conjunto
+            linked = eventWalletRepository.findExistingLinks(valid);
+        } catch (RuntimeException ex) {
+            // sem as consultas o lote inteiro fica sem gravar: cada linha é reportada
+            valid.forEach(ew -> onFailure.accept(ew, ex));
+            return 0;
+        }
+        List<EventWallet> accepted = new ArrayList<>();
+        for (EventWallet ew : valid) {
+            if (!wallets.contains(ew.getUserId())) {
+                onFailure.accept(ew, new IllegalArgumentException("Carteira do usuário não encontrada"));
+            } else if (!events.contains(ew.getEventId())) {
+                onFailure.accept(ew, new IllegalArgumentException("Evento não encontrado"));
+            } else if (!linked.add(List.of(ew.getUserId(), ew.getEventId()))) {
+                onFailure.accept(ew, new IllegalArgumentException("Vínculo já existente"));
+            } else {
+                accepted.add(ew);
+            }
+        }
+
+        try {
+            return eventWalletRepository.saveAll(accepted);
+        } catch (RuntimeException ex) {
+            // lote desfeito (ex.: vínculo criado em paralelo): grava um a um para apontar quem falhou
+            int created = 0;
+            for (EventWallet ew : accepted) {
+                try {
+                    saveUnique(ew);
+                    created++;
+                } catch (RuntimeException rowError) {
+                    onFailure.accept(ew, rowError);
+                }
+            }
+            return created;
+        }
     }
 
     public void removeLink(Long userId, Long eventId) {
         if (userId == null || userId <= 0) throw new IllegalArgumentException("userId inválido");
         if (eventId == null || eventId <= 0) throw new IllegalArgumentException("eventId inválido");
-        eventWalletRepository.delete(userId, eventId);
+        // a vaga volta para o evento na mesma instrução
+        boolean deleted = seatInventory.handles(eventId)
+                ? seatInventory.cancel(userId, eventId)
+                : eventWalletRepository.delete(userId, eventId);
+        if (deleted) eventRepository.evict(eventId);
     }
 
     public List<EventWallet> listByUser(Long userId) {
@@ -51,18 +167,36 @@ public class EventWalletService {
         StringBuilder sb = new StringBuilder();
         if (ew.getUserId() == null || ew.getUserId() <= 0) sb.append("user_id é obrigatório e deve ser positivo. ");
         if (ew.getEventId() == null || ew.getEventId() <= 0) sb.append("event_id é obrigatório e deve ser positivo. ");
-        if (ew.getUserId() != null && ew.getUserId() > 0) {
-            if (myWalletRepository.findByUserId(ew.getUserId()) == null) sb.append("Carteira não encontrada. ");
+        boolean validUser = ew.getUserId() != null && ew.getUserId() > 0;
+        boolean validEvent = ew.getEventId() != null && ew.getEventId() > 0;
+        if (validUser || validEvent) {
+            // carteira, evento e vínculo em uma única consulta
+            Map<String, Boolean> flags = eventWalletRepository.findValidationFlags(
+                    validUser ? ew.getUserId() : null, validEvent ? ew.getEventId() : null);
+            if (validUser && !flags.get("wallet_exists")) sb.append("Carteira não encontrada. ");
+            if (validEvent && !flags.get("event_exists")) sb.append("Evento não encontrado. ");
+            if (validUser && validEvent && flags.get("link_exists")) sb.append("Vínculo já existente. ");
         }
-        if (ew.getEventId() != null && ew.getEventId() > 0) {
-            if (eventRepository.findById(ew.getEventId()) == null) sb.append("Evento não encontrado. ");
+        return sb.toString().trim();
+    }
+
+    // INSERT único; violação da PK volta como erro de validação
+    private EventWallet saveUnique(EventWallet ew) {
+        try {
+            return eventWalletRepository.save(ew);
+        } catch (DuplicateKeyException ex) {
+            throw new IllegalArgumentException(ex.getMessage());
         }
-        if (ew.getUserId() != null && ew.getEventId() != null
-            && ew.getUserId() > 0 && ew.getEventId() > 0
-            && eventWalletRepository.exists(ew.getUserId(), ew.getEventId())) {
-            sb.append("Vínculo já existente. ");
+    }
+
+    // senha da fila válida e do próprio usuário; a busca por email usa o cache de usuários
+    private void admit(EventWallet ew, String subject, String queueToken) {
+        QueueStatus queue = waitingRoom.admission(queueToken, subject, ew.getEventId());
+        User caller = userRepository.findByEmail(subject);
+        if (caller == null || !caller.getId().equals(ew.getUserId())) {
+            throw new IllegalArgumentException("A senha da fila só vale para inscrever o próprio usuário");
         }
-        return sb.toString().trim();
+        if (!queue.isAdmitted()) throw new NotYourTurnException(queue);
     }
 
     private void validateBasic(EventWallet ew) {
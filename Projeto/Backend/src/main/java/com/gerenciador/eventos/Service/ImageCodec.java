@@ -0,0 +1,287 @@
+package com.gerenciador.eventos.Service;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Decodifica e reduz imagens com uso de memória limitado (upload e geração de variantes).
+ *
+ * - As dimensões vêm do cabeçalho, antes de decodificar; acima de images.decode.maxSourcePixels a imagem
+ *   é recusada (IllegalArgumentException).
+ * - A leitura já sai reduzida com subamostragem (ImageReadParam.setSourceSubsampling): uma PNG de
+ *   12000x12000 pedida com 2048 px é decodificada pulando linhas e colunas, sem alocar o bitmap inteiro.
+ *   Depois o ajuste fino até maxPx é feito por scale.
+ * - Orçamento global de pixels decodificados ao mesmo tempo (images.decode.maxPixelsInFlight, ~4 bytes por
+ *   pixel), compartilhado por todas as threads; quem não cabe espera a vez (semáforo justo).
+ * - O upload (toJpeg) roda num pool próprio (images.decode.threads, fila images.decode.queueCapacity):
+ *   com a fila cheia falha na hora com ImageProcessingBusyException (503 + Retry-After).
+ *
+ * Métricas: images.decode.duration, images.decode.rejected, images.decode.budget.available (pixels livres
+ * no orçamento) e executor.* (tag name=images.decode).
+ */
+@Component
+public class ImageCodec {
+
+    private static final float JPEG_QUALITY = 0.85f;
+    /** Maior lado, em pixels, da prévia inline (placeholder) */
+    private static final int PLACEHOLDER_PX = 4;
+    /** A prévia é reduzida a partir de uma decodificação deste tamanho (subamostrar direto para 4 px serrilha) */
+    private static final int PLACEHOLDER_SOURCE_PX = 64;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** 0 = número de núcleos */
+    @Value("${images.decode.threads}")
+    private int threads;
+
+    @Value("${images.decode.queueCapacity}")
+    private int queueCapacity;
+
+    @Value("${images.decode.retryAfterSeconds}")
+    private long retryAfterSeconds;
+
+    @Value("${images.decode.maxPixelsInFlight}")
+    private int maxPixelsInFlight;
+
+    @Value("${images.decode.maxSourcePixels}")
+    private long maxSourcePixels;
+
+    private Semaphore budget;
+    private ThreadPoolExecutor executor;
+    private Timer duration;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        budget = new Semaphore(maxPixelsInFlight, true);
+        Gauge.builder("images.decode.budget.available", budget, Semaphore::availablePermits).register(meterRegistry);
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-decode-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "images.decode", Tags.empty()).bindTo(meterRegistry);
+        duration = Timer.builder("images.decode.duration").register(meterRegistry);
+        rejected = Counter.builder("images.decode.rejected").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Converte uma imagem enviada (qualquer formato do ImageIO) em JPEG RGB com o maior lado até maxPx.
+     * Roda no pool de decodificação; a thread do request só espera o resultado.
+     */
+    public byte[] toJpeg(byte[] input, int maxPx) {
+        Future<byte[]> future;
+        try {
+            future = executor.submit(() -> duration.recordCallable(() -> writeJpeg(decode(input, maxPx))));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ImageProcessingBusyException(retryAfterSeconds);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando conversão da imagem", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException iae) throw iae;
+            // formato corrompido: os leitores do ImageIO lançam IOException ou exceções de runtime variadas
+            throw new IllegalArgumentException("Não foi possível ler a imagem", e.getCause());
+        }
+    }
+
+    /** Largura e altura lidas só do cabeçalho */
+    public Dimension size(byte[] input) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(input))) {
+            ImageReader reader = reader(in);
+            try {
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Imagem RGB com o maior lado até maxPx (menores não são ampliadas), decodificada com subamostragem
+     * dentro do orçamento de pixels. Roda na thread de quem chama.
+     */
+    public BufferedImage decode(byte[] input, int maxPx) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(input))) {
+            ImageReader reader = reader(in);
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    throw new IllegalArgumentException("Resolução da imagem muito alta: " + width + "x" + height);
+                }
+                // passo inteiro que ainda deixa o maior lado >= maxPx (a redução final fica com scale)
+                int step = Math.max(1, Math.max(width, height) / maxPx);
+                long decoded = (long) Math.ceilDiv(width, step) * Math.ceilDiv(height, step);
+                long output = Math.min(decoded, (long) maxPx * maxPx);
+                // uma imagem maior que o orçamento inteiro ainda passa, sozinha
+                int cost = (int) Math.min(maxPixelsInFlight, decoded + output);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                try {
+                    budget.acquire(cost);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrompido aguardando orçamento de memória");
+                }
+                try {
+                    return toRgb(reader.read(0, param), maxPx);
+                } finally {
+                    budget.release(cost);
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Prévia de poucos bytes para o card ser desenhado antes da imagem chegar: base64 de
+     * [R, G, B médios, largura, altura, pixels RGB linha a linha], com o maior lado até PLACEHOLDER_PX
+     * (no máximo 53 bytes, 72 caracteres). Roda na thread de quem chama, dentro do orçamento de pixels.
+     */
+    public String placeholder(byte[] input) throws IOException {
+        BufferedImage tiny = decode(input, PLACEHOLDER_SOURCE_PX);
+        if (Math.max(tiny.getWidth(), tiny.getHeight()) > PLACEHOLDER_PX) tiny = scale(tiny, PLACEHOLDER_PX);
+        int w = tiny.getWidth();
+        int h = tiny.getHeight();
+        byte[] out = new byte[5 + w * h * 3];
+        long r = 0, g = 0, b = 0;
+        int i = 5;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int rgb = tiny.getRGB(x, y);
+                r += (rgb >> 16) & 0xff;
+                g += (rgb >> 8) & 0xff;
+                b += rgb & 0xff;
+                out[i++] = (byte) (rgb >> 16);
+                out[i++] = (byte) (rgb >> 8);
+                out[i++] = (byte) rgb;
+            }
+        }
+        int n = w * h;
+        out[0] = (byte) (r / n);
+        out[1] = (byte) (g / n);
+        out[2] = (byte) (b / n);
+        out[3] = (byte) w;
+        out[4] = (byte) h;
+        return Base64.getEncoder().encodeToString(out);
+    }
+
+    private static ImageReader reader(ImageInputStream in) {
+        Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+        if (readers == null || !readers.hasNext()) {
+            throw new IllegalArgumentException("Não foi possível ler a imagem");
+        }
+        ImageReader reader = readers.next();
+        // só a primeira imagem, sem metadados (EXIF/ICC grandes não vão para a heap)
+        reader.setInput(in, true, true);
+        return reader;
+    }
+
+    /** Reduz para maxPx se precisar e remove alpha/paleta (JPEG é RGB); RGB já no tamanho volta como está */
+    private static BufferedImage toRgb(BufferedImage image, int maxPx) {
+        if (Math.max(image.getWidth(), image.getHeight()) > maxPx) return scale(image, maxPx);
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_3BYTE_BGR) return image;
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Reduz para que o maior lado tenha maxPx, em passos de no máximo metade do tamanho
+     * (uma redução direta grande com interpolação bilinear serrilha a imagem).
+     */
+    static BufferedImage scale(BufferedImage source, int maxPx) {
+        double ratio = (double) maxPx / Math.max(source.getWidth(), source.getHeight());
+        int targetW = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetH = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(targetW, w / 2);
+            h = Math.max(targetH, h / 2);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, w, h, Color.WHITE, null);
+            g.dispose();
+            current = next;
+        } while (w != targetW || h != targetH);
+        return current;
+    }
+
+    /** JPEG RGB com a qualidade usada em todo o app (upload e variantes) */
+    public static byte[] writeJpeg(BufferedImage rgbImage) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(baos)) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(rgbImage, null, null), param);
+            }
+        } finally {
+            writer.dispose();
+        }
+        return baos.toByteArray();
+    }
+}
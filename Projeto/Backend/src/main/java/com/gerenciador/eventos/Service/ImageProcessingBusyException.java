@@ -0,0 +1,25 @@
+package com.gerenciador.eventos.Service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Fila do ImageCodec cheia: o upload é recusado na hora em vez de esperar.
+ * Os controllers respondem 503 com Retry-After = getRetryAfterSeconds().
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ImageProcessingBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public ImageProcessingBusyException(long retryAfterSeconds) {
+        super("Servidor ocupado processando imagens, tente novamente em instantes");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
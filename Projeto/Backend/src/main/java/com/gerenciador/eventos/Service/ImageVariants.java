@@ -0,0 +1,157 @@
+package com.gerenciador.eventos.Service;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.gerenciador.eventos.POJO.ImageSize;
+import com.gerenciador.eventos.Repository.ImageFileStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Gera em segundo plano as variantes (ImageSize) de cada imagem gravada no ImageFileStore.
+ *
+ * O upload só agenda: a geração roda num pool próprio (images.variants.threads, 0 = núcleos) com fila limitada
+ * (images.variants.queueCapacity). Enquanto a variante não existe em disco, find devolve null, o chamador
+ * serve o original e a geração é (re)agendada; com a fila cheia o pedido é descartado e volta a ser
+ * agendado no próximo acesso. Imagens menores que o limite viram uma cópia do original; as demais são
+ * decodificadas uma única vez pelo ImageCodec (subamostragem, orçamento de memória) e reduzidas a partir daí.
+ *
+ * Métricas: images.variants.duration (todas as variantes de uma imagem), images.variants.rejected,
+ * images.variants.failed e executor.* (tag name=images.variants).
+ */
+@Component
+public class ImageVariants {
+
+    @Autowired
+    private ImageCodec imageCodec;
+
+    @Autowired
+    private ImageFileStore imageFileStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${images.variants.threads}")
+    private int threads;
+
+    @Value("${images.variants.queueCapacity}")
+    private int queueCapacity;
+
+    @Value("${images.variants.thumbMaxPx}")
+    private int thumbMaxPx;
+
+    @Value("${images.variants.cardMaxPx}")
+    private int cardMaxPx;
+
+    @Value("${images.variants.fullMaxPx}")
+    private int fullMaxPx;
+
+    private final Map<ImageSize, Integer> maxPx = new EnumMap<>(ImageSize.class);
+    /** Originais com geração na fila ou em andamento (evita agendar a mesma imagem várias vezes) */
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+    private Timer duration;
+    private Counter rejected;
+    private Counter failed;
+
+    @PostConstruct
+    void init() {
+        maxPx.put(ImageSize.THUMB, thumbMaxPx);
+        maxPx.put(ImageSize.CARD, cardMaxPx);
+        maxPx.put(ImageSize.FULL, fullMaxPx);
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-variants-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "images.variants", Tags.empty()).bindTo(meterRegistry);
+        duration = Timer.builder("images.variants.duration").register(meterRegistry);
+        rejected = Counter.builder("images.variants.rejected").register(meterRegistry);
+        failed = Counter.builder("images.variants.failed").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Agenda a geração das variantes que faltam para o original; não bloqueia */
+    public void schedule(String hash) {
+        if (!pending.add(hash)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    duration.record(() -> generate(hash));
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            rejected.increment();
+        }
+    }
+
+    /** Arquivo da variante, ou null se ainda não foi gerada (nesse caso agenda a geração) */
+    public Path find(String hash, ImageSize size) {
+        Path variant = imageFileStore.variantPath(hash, size.key());
+        if (Files.exists(variant)) return variant;
+        schedule(hash);
+        return null;
+    }
+
+    private void generate(String hash) {
+        try {
+            List<ImageSize> missing = new ArrayList<>();
+            for (ImageSize size : ImageSize.values()) {
+                if (!Files.exists(imageFileStore.variantPath(hash, size.key()))) missing.add(size);
+            }
+            if (missing.isEmpty()) return;
+            byte[] original = Files.readAllBytes(imageFileStore.path(hash));
+            Dimension dim = imageCodec.size(original);
+            int longest = Math.max(dim.width, dim.height);
+            // decodifica uma vez, já reduzida para a maior variante que precisa de redução
+            int decodeMax = missing.stream().mapToInt(maxPx::get).filter(limit -> limit < longest).max().orElse(0);
+            BufferedImage source = decodeMax > 0 ? imageCodec.decode(original, decodeMax) : null;
+            for (ImageSize size : missing) {
+                int limit = maxPx.get(size);
+                byte[] content;
+                if (longest <= limit) {
+                    content = original;
+                } else if (limit == decodeMax) {
+                    content = ImageCodec.writeJpeg(source);
+                } else {
+                    content = ImageCodec.writeJpeg(ImageCodec.scale(source, limit));
+                }
+                imageFileStore.putVariant(hash, size.key(), content);
+            }
+        } catch (IOException | RuntimeException e) {
+            // sem variante o original continua sendo servido; nova tentativa no próximo acesso
+            failed.increment();
+        }
+    }
+}
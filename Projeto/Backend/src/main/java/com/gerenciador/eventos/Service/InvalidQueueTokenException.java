@@ -0,0 +1,15 @@
+package com.gerenciador.eventos.Service;
+
+/**
+ * Senha da fila de espera (header X-Queue-Token) ausente, inválida, expirada, já usada ou de outro
+ * usuário/evento. Continua sendo um IllegalArgumentException (400), mas a inscrição da BFF não guarda
+ * essa resposta no Idempotency-Key: o mesmo pedido com uma senha válida precisa executar de verdade.
+ */
+public class InvalidQueueTokenException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidQueueTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.gerenciador.eventos.Service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.gerenciador.eventos.POJO.QueueStatus;
+
+/**
+ * Inscrição num evento com fila de espera antes de a senha ser admitida.
+ * Os controllers respondem 429 com a posição (getQueueStatus) e Retry-After = getRetryAfterSeconds().
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class NotYourTurnException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient QueueStatus queueStatus;
+
+    public NotYourTurnException(QueueStatus queueStatus) {
+        super("Ainda não é a sua vez na fila de espera");
+        this.queueStatus = queueStatus;
+    }
+
+    public QueueStatus getQueueStatus() {
+        return queueStatus;
+    }
+
+    public long getRetryAfterSeconds() {
+        return queueStatus.getRetryAfterSeconds();
+    }
+}
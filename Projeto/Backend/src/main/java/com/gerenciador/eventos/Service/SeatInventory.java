@@ -0,0 +1,264 @@
+package com.gerenciador.eventos.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.gerenciador.eventos.POJO.EnrollmentStatus;
+import com.gerenciador.eventos.POJO.Event;
+import com.gerenciador.eventos.POJO.EventWallet;
+import com.gerenciador.eventos.Repository.EnrollmentJournal;
+import com.gerenciador.eventos.Repository.EventRepository;
+import com.gerenciador.eventos.Repository.EventWalletRepository;
+import com.gerenciador.eventos.Repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Inscrições em memória para eventos de venda relâmpago (opt-in por evento em enrollment.inventory.eventIds).
+ *
+ * Para esses eventos a inscrição não toca a linha do evento: as vagas restantes ficam em StripedSeats,
+ * os inscritos num conjunto concorrente e cada vínculo concedido vai para o EnrollmentJournal antes da
+ * resposta. Uma thread aplica o journal em walletevent/quant em lotes (enrollment.inventory.flushMillis),
+ * então quant e "meus eventos" no banco ficam até esse intervalo atrás do que já foi concedido.
+ *
+ * Na subida, o que ficou no journal sem ser aplicado é reprocessado (applyGrants ignora o que já está
+ * no banco) e só então os eventos são carregados do banco: vagas = capacity - max(quant, inscritos).
+ * Ids de enrollment.inventory.eventIds que não existem são ignorados (com aviso no log).
+ * Mudanças de capacity/buy_time_limit de um evento ativo só valem depois de deactivate/activate ou de
+ * reiniciar; o seed em lote (addLinks) deve rodar antes da ativação. Só um processo deve vender um
+ * evento ativo: o estado em memória não é compartilhado entre instâncias.
+ *
+ * Métricas: enrollment.inventory.pending (vínculos no journal ainda fora do banco),
+ * enrollment.inventory.flush (duração de cada lote aplicado) e enrollment.inventory.dropped
+ * (vínculos que o banco recusou ao aplicar, ex.: usuário ou evento apagado; a vaga volta).
+ */
+@Component
+public class SeatInventory {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatInventory.class);
+
+    @Autowired
+    private EnrollmentJournal journal;
+
+    @Autowired
+    private EventWalletRepository eventWalletRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${enrollment.inventory.eventIds}")
+    private String eventIds;
+
+    @Value("${enrollment.inventory.stripes}")
+    private int stripes;
+
+    @Value("${enrollment.inventory.flushMillis}")
+    private long flushMillis;
+
+    @Value("${enrollment.inventory.flushBatch}")
+    private int flushBatch;
+
+    private final Map<Long, Inventory> events = new ConcurrentHashMap<>();
+    /** Um lote por vez; ReentrantLock (e não synchronized) para não prender a carrier de threads virtuais no JDBC */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledThreadPoolExecutor flusher;
+    private Timer flushDuration;
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        flushDuration = Timer.builder("enrollment.inventory.flush").register(meterRegistry);
+        dropped = Counter.builder("enrollment.inventory.dropped").register(meterRegistry);
+        Gauge.builder("enrollment.inventory.pending", journal, EnrollmentJournal::pendingCount)
+                .register(meterRegistry);
+        // reprocessa o que uma execução anterior deixou no journal, mesmo sem eventos ativos agora
+        if (journal.exists()) journal.open();
+        flush();
+        for (String id : eventIds.split(",")) {
+            if (id.isBlank()) continue;
+            try {
+                activate(Long.parseLong(id.trim()));
+            } catch (IllegalArgumentException ex) {
+                // id inexistente (ou evento apagado) não impede a subida: o evento fica na inscrição pelo banco
+                log.warn("enrollment.inventory.eventIds: evento {} ignorado ({})", id.trim(), ex.getMessage());
+            }
+        }
+        flusher = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("enrollment-flush-"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    /** Se o evento é vendido por aqui (ativo) em vez da instrução atômica no banco */
+    public boolean handles(Long eventId) {
+        return eventId != null && events.containsKey(eventId);
+    }
+
+    /**
+     * Passa a vender o evento em memória. Aplica antes o journal pendente para que quant e os inscritos
+     * lidos do banco estejam completos.
+     */
+    public void activate(Long eventId) {
+        journal.open();
+        flush();
+        eventRepository.evict(eventId);
+        Event event = eventRepository.findById(eventId);
+        if (event == null) throw new IllegalArgumentException("Evento não encontrado");
+        Set<Long> enrolled = ConcurrentHashMap.newKeySet();
+        enrolled.addAll(eventWalletRepository.findUserIdsByEvent(eventId));
+        StripedSeats seats = null;
+        if (event.getLot_quantity() != null) {
+            long taken = Math.max(event.getQuantity(), enrolled.size());
+            seats = new StripedSeats(Math.max(0, event.getLot_quantity() - taken), stripes);
+        }
+        events.put(eventId, new Inventory(seats, enrolled, event.getBuy_time_limit()));
+    }
+
+    /** Volta o evento para a inscrição no banco, depois de aplicar o que já foi concedido */
+    public void deactivate(Long eventId) {
+        events.remove(eventId);
+        flush();
+    }
+
+    /**
+     * Inscrição de um evento ativo, com as mesmas regras de EventWalletRepository.enroll.
+     * ENROLLED só é devolvido depois de o vínculo estar no journal (em disco, com enrollment.journal.fsync).
+     */
+    public EnrollmentStatus enroll(EventWallet ew, LocalDateTime now) {
+        Inventory inventory = events.get(ew.getEventId());
+        if (inventory == null) return EnrollmentStatus.EVENT_NOT_FOUND;
+        Long userId = ew.getUserId();
+        if (inventory.enrolled.contains(userId)) return EnrollmentStatus.DUPLICATE;
+        if (inventory.salesUntil == null || now.isAfter(inventory.salesUntil)) return EnrollmentStatus.SALES_CLOSED;
+        // a carteira é criada junto com o usuário (trigger); o cache de usuários evita ir ao banco
+        if (userRepository.findById(userId) == null) return EnrollmentStatus.WALLET_NOT_FOUND;
+        if (!inventory.enrolled.add(userId)) return EnrollmentStatus.DUPLICATE;
+        if (inventory.seats != null && !inventory.seats.tryAcquire()) {
+            inventory.enrolled.remove(userId);
+            return EnrollmentStatus.SOLD_OUT;
+        }
+        long millis = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long end = journal.append(userId, ew.getEventId(), millis);
+        if (end < 0) {
+            inventory.release(userId);
+            throw new IllegalStateException("Journal de inscrições cheio");
+        }
+        journal.awaitDurable(end);
+        ew.setCreatedAt(now);
+        ew.setUpdatedAt(now);
+        return EnrollmentStatus.ENROLLED;
+    }
+
+    /**
+     * Cancela a inscrição num evento ativo: aplica o journal (o vínculo pode ainda não estar no banco),
+     * apaga o vínculo devolvendo a vaga no banco e então em memória.
+     * @return false se o vínculo não existia
+     */
+    public boolean cancel(Long userId, Long eventId) {
+        flush();
+        boolean deleted = eventWalletRepository.delete(userId, eventId);
+        Inventory inventory = events.get(eventId);
+        if (deleted && inventory != null) inventory.release(userId);
+        return deleted;
+    }
+
+    /** Vagas restantes em memória de um evento ativo (null = sem limite ou evento não ativo) */
+    public Long remaining(Long eventId) {
+        Inventory inventory = events.get(eventId);
+        return inventory != null && inventory.seats != null ? inventory.seats.remaining() : null;
+    }
+
+    /** Aplica no banco, em lotes, tudo o que já está durável no journal */
+    public void flush() {
+        if (!journal.exists()) return;
+        journal.open();
+        flushLock.lock();
+        try {
+            EnrollmentJournal.Pending batch;
+            while (!(batch = journal.pending(flushBatch)).links().isEmpty()) {
+                EnrollmentJournal.Pending applying = batch;
+                flushDuration.record(() -> apply(applying.links()));
+                journal.markApplied(batch.end());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            // banco indisponível: o journal guarda tudo e a próxima rodada tenta de novo
+        }
+    }
+
+    private void apply(List<EventWallet> links) {
+        Set<Long> touched = new HashSet<>();
+        for (EventWallet ew : links) touched.add(ew.getEventId());
+        try {
+            eventWalletRepository.applyGrants(links);
+        } catch (DataIntegrityViolationException ex) {
+            // lote recusado pelo schema (ex.: usuário apagado depois da concessão): aplica um a um e devolve
+            // a vaga dos recusados; outros erros (banco fora) sobem e o lote fica no journal
+            for (EventWallet ew : links) {
+                try {
+                    eventWalletRepository.applyGrants(List.of(ew));
+                } catch (DataIntegrityViolationException rowError) {
+                    dropped.increment();
+                    Inventory inventory = events.get(ew.getEventId());
+                    if (inventory != null) inventory.release(ew.getUserId());
+                }
+            }
+        }
+        for (Long eventId : touched) eventRepository.evict(eventId);
+    }
+
+    /** Estado em memória de um evento ativo */
+    private static final class Inventory {
+        final StripedSeats seats;        // null = sem limite
+        final Set<Long> enrolled;
+        final LocalDateTime salesUntil;  // buy_time_limit
+
+        Inventory(StripedSeats seats, Set<Long> enrolled, LocalDateTime salesUntil) {
+            this.seats = seats;
+            this.enrolled = enrolled;
+            this.salesUntil = salesUntil;
+        }
+
+        void release(Long userId) {
+            if (enrolled.remove(userId) && seats != null) seats.release();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.gerenciador.eventos.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Vagas restantes de um evento divididas em faixas, cada uma um contador atômico próprio: inscrições
+ * concorrentes disputam faixas diferentes em vez de uma única variável (sem locks, só CAS).
+ *
+ * A soma das faixas nunca fica negativa e só diminui em tryAcquire, então não há venda além do total.
+ * Uma faixa vazia faz o pedido tentar as outras; SOLD_OUT só depois de todas vazias (uma vaga devolvida
+ * numa faixa já percorrida durante essa volta pode passar despercebida).
+ */
+final class StripedSeats {
+
+    /** Longs por faixa: cada contador na sua linha de cache (64 bytes) */
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedSeats(long seats, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PAD);
+        for (int i = 0; i < this.stripes; i++) {
+            cells.set(i * PAD, seats / this.stripes + (i < seats % this.stripes ? 1 : 0));
+        }
+    }
+
+    /** Ocupa uma vaga; false se todas as faixas estão vazias */
+    boolean tryAcquire() {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PAD;
+            long seats;
+            while ((seats = cells.get(cell)) > 0) {
+                if (cells.compareAndSet(cell, seats, seats - 1)) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Devolve uma vaga (cancelamento ou concessão desfeita) */
+    void release() {
+        cells.incrementAndGet(ThreadLocalRandom.current().nextInt(stripes) * PAD);
+    }
+
+    /** Soma das faixas (aproximada sob concorrência) */
+    long remaining() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) sum += cells.get(i * PAD);
+        return sum;
+    }
+}
@@ -1,11 +1,21 @@
 package com.gerenciador.eventos.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import com.gerenciador.eventos.POJO.User;
 import com.gerenciador.eventos.Repository.UserRepository;
+import com.gerenciador.eventos.security.PasswordHasher;
+import com.gerenciador.eventos.security.PasswordHashingBusyException;
 
 /**
  * Service - lógica de negócio e validações
@@ -18,20 +28,104 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     /**
      * Criar novo usuário com validações
      */
     public User createUser(User user) {
         validateRequiredFields(user);
-        validateDuplicates(user);
+        // duplicados (nome, email, telefone) são barrados pelas constraints UNIQUE no INSERT
         user.setIsActive(true);
-        // Hash da senha antes de salvar
+        // Hash da senha antes de salvar (pool limitado do PasswordHasher)
         if (user.getPassword() != null && !user.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            user.setPassword(passwordHasher.encode(user.getPassword()));
+        }
+        return saveUnique(user);
+    }
+
+    /**
+     * Criar um lote de usuários (seed em lote) com as mesmas regras de createUser.
+     * Duplicados são verificados com uma consulta por coluna para o lote inteiro, o hash das senhas
+     * roda no pool do PasswordHasher e a gravação é um JDBC batch em uma transação.
+     * Cada usuário rejeitado é entregue a onFailure com a mesma exceção que createUser lançaria.
+     * @return quantidade de usuários gravados
+     */
+    public int createUsers(List<User> users, BiConsumer<User, RuntimeException> onFailure) {
+        List<User> valid = new ArrayList<>();
+        for (User user : users) {
+            try {
+                validateRequiredFields(user);
+                valid.add(user);
+            } catch (IllegalArgumentException e) {
+                onFailure.accept(user, e);
+            }
+        }
+
+        // já cadastrados no banco; os aceitos no próprio lote entram nos mesmos conjuntos
+        Set<String> names;
+        Set<String> emails;
+        Set<String> fones;
+        try {
+            names = userRepository.findExistingNames(nonBlank(valid, User::getName));
+            emails = userRepository.findExistingEmails(nonBlank(valid, User::getEmail));
+            fones = userRepository.findExistingFones(nonBlank(valid, User::getFone));
+        } catch (RuntimeException e) {
+            // sem as consultas o lote inteiro fica sem gravar: cada linha é reportada
+            valid.forEach(user -> onFailure.accept(user, e));
+            return 0;
+        }
+        List<User> accepted = new ArrayList<>();
+        for (User user : valid) {
+            boolean hasFone = user.getFone() != null && !user.getFone().trim().isEmpty();
+            if (names.contains(user.getName())) {
+                onFailure.accept(user, new IllegalArgumentException("Nome já existente: " + user.getName()));
+            } else if (emails.contains(user.getEmail())) {
+                onFailure.accept(user, new IllegalArgumentException("Email já existente: " + user.getEmail()));
+            } else if (hasFone && fones.contains(user.getFone())) {
+                onFailure.accept(user, new IllegalArgumentException("Telefone já existente: " + user.getFone()));
+            } else {
+                names.add(user.getName());
+                emails.add(user.getEmail());
+                if (hasFone) fones.add(user.getFone());
+                accepted.add(user);
+            }
+        }
+
+        // BCrypt é caro de propósito; o PasswordHasher distribui o hash entre os núcleos
+        List<User> withPassword = new ArrayList<>();
+        for (User user : accepted) {
+            user.setIsActive(true);
+            if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+                withPassword.add(user);
+            }
+        }
+        List<String> hashes;
+        try {
+            hashes = passwordHasher.encodeAll(withPassword.stream().map(User::getPassword).toList());
+        } catch (RuntimeException e) {
+            accepted.forEach(user -> onFailure.accept(user, e));
+            return 0;
+        }
+        for (int i = 0; i < withPassword.size(); i++) {
+            withPassword.get(i).setPassword(hashes.get(i));
+        }
+
+        try {
+            return userRepository.saveAll(accepted);
+        } catch (RuntimeException e) {
+            // lote desfeito (ex.: cadastro concorrente): grava um a um para apontar quem falhou
+            int created = 0;
+            for (User user : accepted) {
+                try {
+                    saveUnique(user);
+                    created++;
+                } catch (RuntimeException rowError) {
+                    onFailure.accept(user, rowError);
+                }
+            }
+            return created;
         }
-        return userRepository.save(user);
     }
 
     /**
@@ -67,16 +161,15 @@ public class UserService {
         if (user.getEmail() == null || user.getEmail().trim().isEmpty()) {
             errors.append("Email não pode estar vazio. ");
         }
-        if (user.getEmail() != null && !user.getEmail().trim().isEmpty() 
-            && userRepository.emailExists(user.getEmail())) {
+        // duplicidade de email, nome e telefone em uma única consulta
+        Map<String, Boolean> taken = findDuplicateFlags(user);
+        if (taken.get("email_taken")) {
             errors.append("Email '").append(user.getEmail()).append("' já está cadastrado. ");
         }
-        if (user.getName() != null && !user.getName().trim().isEmpty() 
-            && userRepository.nameExists(user.getName())) {
+        if (taken.get("name_taken")) {
             errors.append("Nome '").append(user.getName()).append("' já está cadastrado. ");
         }
-        if (user.getFone() != null && !user.getFone().trim().isEmpty() 
-            && userRepository.foneExists(user.getFone())) {
+        if (taken.get("fone_taken")) {
             errors.append("Telefone '").append(user.getFone()).append("' já está cadastrado. ");
         }
         
@@ -113,7 +206,11 @@ public class UserService {
             throw new IllegalArgumentException("ID do usuário não pode ser nulo");
         }
         validateRequiredFields(user);
-        return userRepository.update(user);
+        try {
+            return userRepository.update(user);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
     }
 
     /**
@@ -125,6 +222,15 @@ public class UserService {
 
     // ========== Validações Privadas ==========
 
+    // INSERT único; violação de UNIQUE (nome, email, telefone) volta como erro de validação
+    private User saveUnique(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
     private void validateRequiredFields(User user) {
         if (user.getName() == null || user.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Nome não pode estar vazio");
@@ -135,28 +241,63 @@ public class UserService {
     }
 
     private void validateDuplicates(User user) {
-        if (user.getName() != null && !user.getName().trim().isEmpty() 
-            && userRepository.nameExists(user.getName())) {
+        Map<String, Boolean> taken = findDuplicateFlags(user);
+        if (taken.get("name_taken")) {
             throw new IllegalArgumentException("Nome já existente: " + user.getName());
         }
-        if (user.getEmail() != null && !user.getEmail().trim().isEmpty() 
-            && userRepository.emailExists(user.getEmail())) {
+        if (taken.get("email_taken")) {
             throw new IllegalArgumentException("Email já existente: " + user.getEmail());
         }
-        if (user.getFone() != null && !user.getFone().trim().isEmpty() 
-            && userRepository.foneExists(user.getFone())) {
+        if (taken.get("fone_taken")) {
             throw new IllegalArgumentException("Telefone já existente: " + user.getFone());
         }
     }
 
+    // campos vazios não são consultados (vão como null e nunca contam como duplicados)
+    private Map<String, Boolean> findDuplicateFlags(User user) {
+        return userRepository.findDuplicateFlags(textOrNull(user.getName()), textOrNull(user.getEmail()),
+                textOrNull(user.getFone()));
+    }
+
+    private static String textOrNull(String s) {
+        return (s == null || s.trim().isEmpty()) ? null : s;
+    }
+
+    private static Set<String> nonBlank(List<User> users, Function<User, String> field) {
+        Set<String> values = new HashSet<>();
+        for (User user : users) {
+            String v = field.apply(user);
+            if (v != null && !v.trim().isEmpty()) values.add(v);
+        }
+        return values;
+    }
+
     public User login(String email, String password) {
-        User user = userRepository.findByEmail(email);
-        if (user != null && passwordEncoder.matches(password, user.getPassword())) {
+        // hash sempre lido do banco (o cache de usuários não guarda senha)
+        User user = userRepository.findCredentialsByEmail(email);
+        if (user != null && passwordHasher.matches(password, user.getPassword())) {
+            rehashIfNeeded(user, password);
             return user;
         }
         return null; // ou lançar exceção
     }
 
+    /**
+     * Refaz o hash com o custo atual quando o salvo foi gerado com outro custo (ver PasswordHasher).
+     * Melhor esforço: com o pool ocupado fica para o próximo login.
+     */
+    private void rehashIfNeeded(User user, String password) {
+        if (!passwordHasher.needsRehash(user.getPassword())) return;
+        try {
+            String rehashed = passwordHasher.encode(password);
+            if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), rehashed)) {
+                user.setPassword(rehashed);
+            }
+        } catch (PasswordHashingBusyException e) {
+            // mantém o hash antigo, que continua válido
+        }
+    }
+
     /**
      * Alterar senha do usuário
      * @param userId ID do usuário
@@ -165,14 +306,14 @@ public class UserService {
      * @return true se a senha foi alterada com sucesso
      */
     public boolean changePassword(Long userId, String oldPassword, String newPassword) {
-        User user = userRepository.findById(userId);
+        User user = userRepository.findCredentialsById(userId);
         
         if (user == null) {
             throw new IllegalArgumentException("Usuário não encontrado");
         }
         
         // Validar senha antiga
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHasher.matches(oldPassword, user.getPassword())) {
             throw new IllegalArgumentException("Senha atual incorreta");
         }
         
@@ -182,7 +323,7 @@ public class UserService {
         }
         
         // Hash da nova senha e atualizar
-        String hashedPassword = passwordEncoder.encode(newPassword);
+        String hashedPassword = passwordHasher.encode(newPassword);
         user.setPassword(hashedPassword);
         userRepository.update(user);
         
@@ -0,0 +1,252 @@
+package com.gerenciador.eventos.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gerenciador.eventos.POJO.QueueStatus;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Fila de espera (FIFO) na frente da inscrição de eventos muito disputados (enrollment.waitingRoom.eventIds).
+ *
+ * Quem entra na fila recebe uma senha numerada, assinada (HS256 com chave derivada de jwt.secret, que não
+ * serve como token de login) e presa ao subject do JWT de quem entrou; entrar de novo devolve a mesma senha.
+ * As senhas são admitidas em ordem, admitPerSecond por segundo: a fronteira de admissão anda com o tempo e
+ * acumula no máximo burst vagas enquanto a fila está vazia. Entrar e consultar só verificam a assinatura e
+ * leem memória, sem banco nem BCrypt; a inscrição de um evento com fila exige uma senha já admitida
+ * (EventWalletService.enroll) e a consome quando dá certo: inscrever de novo exige voltar para a fila.
+ * Senhas mais velhas que ticketTtlSeconds (já expiradas) saem da memória da fila.
+ *
+ * A fila vive na memória desta instância: senhas emitidas antes de reiniciar deixam de valer e o usuário
+ * entra de novo. Métricas: enrollment.waitingRoom.joined e enrollment.waitingRoom.turnedAway (inscrição
+ * recusada por ainda não ser a vez).
+ */
+@Component
+public class WaitingRoom {
+
+    /** Header com a senha da fila na consulta e na inscrição */
+    public static final String TOKEN_HEADER = "X-Queue-Token";
+
+    /** Intervalo máximo sugerido entre consultas, mesmo no fim de uma fila longa */
+    private static final long MAX_POLL_SECONDS = 30;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${enrollment.waitingRoom.eventIds}")
+    private String eventIds;
+
+    @Value("${enrollment.waitingRoom.admitPerSecond}")
+    private double admitPerSecond;
+
+    @Value("${enrollment.waitingRoom.burst}")
+    private long burst;
+
+    @Value("${enrollment.waitingRoom.ticketTtlSeconds}")
+    private long ticketTtlSeconds;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    /** Identifica esta execução: senhas de antes de reiniciar não valem */
+    private final long epoch = System.currentTimeMillis();
+    private Key signingKey;
+    private JwtParser parser;
+    private Counter joined;
+    private Counter turnedAway;
+
+    @PostConstruct
+    void init() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        signingKey = Keys.hmacShaKeyFor(mac.doFinal("waiting-room".getBytes(StandardCharsets.UTF_8)));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        joined = Counter.builder("enrollment.waitingRoom.joined").register(meterRegistry);
+        turnedAway = Counter.builder("enrollment.waitingRoom.turnedAway").register(meterRegistry);
+        for (String id : eventIds.split(",")) {
+            if (!id.isBlank()) open(Long.parseLong(id.trim()));
+        }
+    }
+
+    /** Abre a fila de um evento (as inscrições passam a exigir senha admitida) */
+    public void open(Long eventId) {
+        rooms.computeIfAbsent(eventId, id -> new Room(admitPerSecond, burst, ticketTtlSeconds));
+    }
+
+    /** Fecha a fila de um evento: a inscrição volta a ser direta */
+    public void close(Long eventId) {
+        rooms.remove(eventId);
+    }
+
+    /** Se a inscrição no evento passa pela fila */
+    public boolean guards(Long eventId) {
+        return eventId != null && rooms.containsKey(eventId);
+    }
+
+    /** Entra na fila (ou recupera a senha já emitida para o subject). Evento sem fila: admitido direto */
+    public QueueStatus join(String subject, Long eventId) {
+        Room room = rooms.get(eventId);
+        if (room == null) return new QueueStatus(null, 0, true, 0);
+        long ticket = room.ticketFor(subject);
+        joined.increment();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("evt", eventId);
+        claims.put("tkt", ticket);
+        claims.put("epo", epoch);
+        Date now = new Date();
+        String token = Jwts.builder()
+                .setClaims(claims)
+                .setSubject(subject)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + ticketTtlSeconds * 1000))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+        return status(room, token, ticket);
+    }
+
+    /**
+     * Situação da senha na fila do evento.
+     * @throws InvalidQueueTokenException senha ausente, inválida, expirada ou de outro usuário/evento
+     */
+    public QueueStatus status(String token, String subject, Long eventId) {
+        Room room = rooms.get(eventId);
+        if (room == null) return new QueueStatus(null, 0, true, 0);
+        if (token == null || token.isBlank()) {
+            throw new InvalidQueueTokenException("Evento com fila de espera: entre na fila antes de se inscrever");
+        }
+        long ticket = verify(token, subject, eventId);
+        // senha já usada numa inscrição ou substituída por outra do mesmo subject
+        if (!room.isCurrent(subject, ticket)) throw new InvalidQueueTokenException("Senha da fila inválida ou expirada");
+        return status(room, token, ticket);
+    }
+
+    /** Como status, mas conta a recusa quando ainda não é a vez (usado na inscrição) */
+    public QueueStatus admission(String token, String subject, Long eventId) {
+        QueueStatus status = status(token, subject, eventId);
+        if (!status.isAdmitted()) turnedAway.increment();
+        return status;
+    }
+
+    /** Marca como usada a senha do subject (inscrição feita); entrar de novo emite uma senha nova no fim da fila */
+    public void consume(String subject, Long eventId) {
+        Room room = rooms.get(eventId);
+        if (room != null) room.consume(subject);
+    }
+
+    private QueueStatus status(Room room, String token, long ticket) {
+        long ahead = room.ahead(ticket);
+        if (ahead == 0) return new QueueStatus(token, 0, true, 0);
+        long wait = (long) Math.ceil(ahead / admitPerSecond);
+        return new QueueStatus(token, ahead, false, Math.max(1, Math.min(wait, MAX_POLL_SECONDS)));
+    }
+
+    private long verify(String token, String subject, Long eventId) {
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidQueueTokenException("Senha da fila inválida ou expirada");
+        }
+        Number evt = claims.get("evt", Number.class);
+        Number epo = claims.get("epo", Number.class);
+        Number tkt = claims.get("tkt", Number.class);
+        if (evt == null || evt.longValue() != eventId || epo == null || epo.longValue() != epoch
+                || tkt == null || subject == null || !subject.equals(claims.getSubject())) {
+            throw new InvalidQueueTokenException("Senha da fila inválida ou expirada");
+        }
+        return tkt.longValue();
+    }
+
+    /** Fila de um evento: senhas numeradas a partir de 1 e a fronteira de admissão */
+    private static final class Room {
+        private final double perNano;
+        private final long burst;
+        private final long ttlNanos;
+        /** Senha vigente de cada subject, em ordem de emissão (a mais velha primeiro) */
+        private final LinkedHashMap<String, Ticket> tickets = new LinkedHashMap<>();
+        private long issued;
+        private double frontier;   // senhas <= frontier estão admitidas
+        private long last;
+
+        Room(double admitPerSecond, long burst, long ticketTtlSeconds) {
+            this.perNano = admitPerSecond / 1_000_000_000d;
+            this.burst = burst;
+            this.ttlNanos = TimeUnit.SECONDS.toNanos(ticketTtlSeconds);
+            this.frontier = burst;
+            this.last = System.nanoTime();
+        }
+
+        synchronized long ticketFor(String subject) {
+            advance();
+            Ticket current = tickets.get(subject);
+            if (current != null && !current.used) return current.number;
+            // primeira vez ou senha já usada: nova senha no fim da fila
+            tickets.remove(subject);
+            Ticket ticket = new Ticket(++issued, last);
+            tickets.put(subject, ticket);
+            return ticket.number;
+        }
+
+        synchronized boolean isCurrent(String subject, long number) {
+            advance();
+            Ticket current = tickets.get(subject);
+            return current != null && !current.used && current.number == number;
+        }
+
+        synchronized void consume(String subject) {
+            Ticket current = tickets.get(subject);
+            if (current != null) current.used = true;
+        }
+
+        synchronized long ahead(long ticket) {
+            advance();
+            return Math.max(0, ticket - (long) frontier);
+        }
+
+        // anda com o tempo, sem passar de burst vagas além da última senha emitida; descarta senhas expiradas
+        private void advance() {
+            long now = System.nanoTime();
+            frontier = Math.min(frontier + (now - last) * perNano, issued + burst);
+            last = now;
+            Iterator<Ticket> oldest = tickets.values().iterator();
+            while (oldest.hasNext() && now - oldest.next().issuedAt > ttlNanos) oldest.remove();
+        }
+    }
+
+    /** Senha emitida; used depois de uma inscrição feita com ela */
+    private static final class Ticket {
+        final long number;
+        final long issuedAt;   // System.nanoTime()
+        boolean used;
+
+        Ticket(long number, long issuedAt) {
+            this.number = number;
+            this.issuedAt = issuedAt;
+        }
+    }
+}
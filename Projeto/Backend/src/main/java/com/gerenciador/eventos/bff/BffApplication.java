@@ -1,12 +1,20 @@
 package com.gerenciador.eventos.bff;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.Principal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,18 +22,36 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.gerenciador.eventos.POJO.CursorPage;
+import com.gerenciador.eventos.POJO.EnrollmentStatus;
 import com.gerenciador.eventos.POJO.Event;
 import com.gerenciador.eventos.POJO.EventWallet;
+import com.gerenciador.eventos.POJO.ImageSize;
 import com.gerenciador.eventos.POJO.MyWallet;
+import com.gerenciador.eventos.POJO.QueueStatus;
 import com.gerenciador.eventos.POJO.User;
+import com.gerenciador.eventos.POJO.UserEvent;
 import com.gerenciador.eventos.Service.EventService;
 import com.gerenciador.eventos.Service.EventWalletService;
+import com.gerenciador.eventos.Service.ImageCodec;
+import com.gerenciador.eventos.Service.ImageProcessingBusyException;
+import com.gerenciador.eventos.Service.InvalidQueueTokenException;
 import com.gerenciador.eventos.Service.MyWalletService;
+import com.gerenciador.eventos.Service.NotYourTurnException;
 import com.gerenciador.eventos.Service.UserService;
+import com.gerenciador.eventos.Service.WaitingRoom;
+import com.gerenciador.eventos.security.PasswordHashingBusyException;
 
 // Scan for packages as per structure
 @SpringBootApplication
@@ -53,6 +79,8 @@ public class BffApplication {
             try {
                 User created = userService.createUser(user);
                 return ResponseEntity.status(HttpStatus.CREATED).body(created);
+            } catch (PasswordHashingBusyException e) {
+                return busy(e);
             } catch (IllegalArgumentException e) {
                 return ResponseEntity.badRequest().body(e.getMessage());
             } catch (Exception e) {
@@ -112,6 +140,8 @@ public class BffApplication {
                 } else {
                     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro ao alterar senha");
                 }
+            } catch (PasswordHashingBusyException e) {
+                return busy(e);
             } catch (IllegalArgumentException e) {
                 return ResponseEntity.badRequest().body(e.getMessage());
             } catch (Exception e) {
@@ -141,7 +171,12 @@ public class BffApplication {
 
         @PostMapping("/login")
         public ResponseEntity<?> login(@RequestBody User loginRequest) {
-            User user = userService.login(loginRequest.getEmail(), loginRequest.getPassword());
+            User user;
+            try {
+                user = userService.login(loginRequest.getEmail(), loginRequest.getPassword());
+            } catch (PasswordHashingBusyException e) {
+                return busy(e);
+            }
             if (user != null) {
                 // Gerar token JWT (injeção manual simples)
                 String token = jwtUtil.generateToken(user.getEmail());
@@ -153,6 +188,13 @@ public class BffApplication {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciais inválidas");
         }
 
+        /** Pool de BCrypt saturado: 503 com Retry-After para o cliente tentar de novo */
+        private static ResponseEntity<?> busy(PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+        }
+
         @GetMapping("/me")
         public ResponseEntity<?> getCurrentUser() {
             try {
@@ -180,13 +222,31 @@ public class BffApplication {
     @RequestMapping("/bff/events")
     public static class EventBffController {
         private final EventService eventService;
-
-        public EventBffController(EventService eventService) {
+        private final ObjectMapper objectMapper;
+        private final ImageCodec imageCodec;
+        private final IdempotentRequests idempotentRequests;
+        /** Maior lado do original guardado (images.upload.maxPx) */
+        private final int uploadMaxPx;
+
+        public EventBffController(EventService eventService, ObjectMapper objectMapper, ImageCodec imageCodec,
+                                  IdempotentRequests idempotentRequests,
+                                  @Value("${images.upload.maxPx}") int uploadMaxPx) {
             this.eventService = eventService;
+            this.objectMapper = objectMapper;
+            this.imageCodec = imageCodec;
+            this.idempotentRequests = idempotentRequests;
+            this.uploadMaxPx = uploadMaxPx;
         }
 
+        /** Reenvio com o mesmo Idempotency-Key devolve o evento já criado em vez de criar outro */
         @PostMapping
-        public ResponseEntity<?> createEvent(@RequestBody Event event) {
+        public ResponseEntity<?> createEvent(@RequestBody Event event, Principal principal,
+                                             @RequestHeader(value = IdempotentRequests.KEY_HEADER, required = false) String idempotencyKey) {
+            return idempotentRequests.execute("POST /bff/events", principal.getName(), idempotencyKey, event,
+                    () -> create(event));
+        }
+
+        private ResponseEntity<?> create(Event event) {
             List<String> basicErrors = validateEventBasic(event);
             if (!basicErrors.isEmpty()) {
                 return ResponseEntity.badRequest().body(String.join("; ", basicErrors));
@@ -255,9 +315,32 @@ public class BffApplication {
             }
         }
 
+        // Sem termo devolve a primeira página da listagem (limit); a lista completa fica em /export
         @GetMapping("/search")
-        public ResponseEntity<List<Event>> searchEvents(@RequestParam String term) {
-            return ResponseEntity.ok(eventService.searchEvents(term));
+        public ResponseEntity<List<Event>> searchEvents(
+                @RequestParam String term,
+                @RequestParam(defaultValue = "" + EventService.DEFAULT_SEARCH_LIMIT) int limit) {
+            return ResponseEntity.ok(eventService.searchEvents(term, limit));
+        }
+
+        // Exportação explícita (autenticada): lista completa lida por cursor e escrita item a item.
+        // Segura uma conexão do pool enquanto o cliente lê a resposta; telas devem usar /page
+        @GetMapping("/export")
+        public ResponseEntity<StreamingResponseBody> exportEvents() {
+            StreamingResponseBody body = out -> writeJsonArray(out, eventService::streamEvents);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+
+        @GetMapping("/page")
+        public ResponseEntity<?> listEvents(
+                @RequestParam(required = false) String cursor,
+                @RequestParam(defaultValue = "" + EventService.DEFAULT_PAGE_SIZE) int limit) {
+            try {
+                CursorPage<Event> page = eventService.listEvents(cursor, limit);
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(ex.getMessage());
+            }
         }
 
         @GetMapping
@@ -266,13 +349,57 @@ public class BffApplication {
                 return ResponseEntity.badRequest().build();
             }
             try {
-                List<Event> events = eventService.findByCreatorId(creator_id);
+                List<Event> events = eventService.findAllByCreatorId(creator_id);
                 return ResponseEntity.ok(events);
             } catch (RuntimeException ex) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
             }
         }
 
+        /** Variante paginada de getEventsByCreator: mesma busca, devolvida como CursorPage */
+        @GetMapping(value = "/page", params = "creator_id")
+        public ResponseEntity<?> getEventsByCreatorPage(
+                @RequestParam Long creator_id,
+                @RequestParam(required = false) String cursor,
+                @RequestParam(defaultValue = "" + EventService.DEFAULT_PAGE_SIZE) int limit) {
+            try {
+                CursorPage<Event> page = eventService.findByCreatorId(creator_id, cursor, limit);
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(ex.getMessage());
+            } catch (RuntimeException ex) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+            }
+        }
+
+        /** Eventos em que o usuário está inscrito e os que ele criou, numa só resposta paginada */
+        @GetMapping("/user/{userId}")
+        public ResponseEntity<?> getUserEvents(
+                @PathVariable Long userId,
+                @RequestParam(required = false) String cursor,
+                @RequestParam(defaultValue = "" + EventService.DEFAULT_PAGE_SIZE) int limit) {
+            try {
+                CursorPage<UserEvent> page = eventService.findForUser(userId, cursor, limit);
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(ex.getMessage());
+            } catch (RuntimeException ex) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+            }
+        }
+
+        @GetMapping("/count")
+        public ResponseEntity<?> countEventsByCreator(@RequestParam(required = false) Long creator_id) {
+            if (creator_id == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            try {
+                return ResponseEntity.ok(java.util.Map.of("count", eventService.countByCreatorId(creator_id)));
+            } catch (RuntimeException ex) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+            }
+        }
+
         @PostMapping(value = "/{id}/image", consumes = "multipart/form-data")
         public ResponseEntity<?> uploadEventImage(
                 @PathVariable Long id,
@@ -289,15 +416,19 @@ public class BffApplication {
                     return ResponseEntity.badRequest().body("Arquivo deve ser uma imagem");
                 }
 
-                // Ler e converter para JPG
-                byte[] imageBytes = convertToJpg(file.getBytes(), file.getContentType());
+                // Converter para JPG já reduzido (pool e orçamento de memória do ImageCodec)
+                byte[] imageBytes = imageCodec.toJpeg(file.getBytes(), uploadMaxPx);
 
-                // Buscar evento e atualizar imagem
-                Event event = eventService.findById(id);
-                event.setImage_data(imageBytes);
-                eventService.updateEvent(event);
+                // Atualiza só a coluna da imagem (sem reler/regravar o evento)
+                eventService.updateImage(id, imageBytes);
 
                 return ResponseEntity.ok("Imagem carregada com sucesso");
+            } catch (ImageProcessingBusyException ex) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                        .body(ex.getMessage());
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(ex.getMessage());
             } catch (RuntimeException ex) {
                 return ResponseEntity.notFound().build();
             } catch (Exception ex) {
@@ -306,51 +437,49 @@ public class BffApplication {
             }
         }
 
+        /**
+         * Imagem do evento; size=thumb|card|full pede uma variante reduzida. Enquanto a variante não
+         * foi gerada serve o original sem cache (no-cache), para o cliente pegar a variante depois.
+         */
         @GetMapping("/{id}/image")
-        public ResponseEntity<byte[]> getEventImage(@PathVariable Long id) {
+        public void getEventImage(@PathVariable Long id, @RequestParam(required = false) String size,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+            ImageSize variant;
+            java.nio.file.Path file;
             try {
-                Event event = eventService.findById(id);
-                byte[] imageData = event.getImage_data();
-                
-                if (imageData == null || imageData.length == 0) {
-                    return ResponseEntity.notFound().build();
-                }
-
-                return ResponseEntity.ok()
-                        .header("Content-Type", "image/jpeg")
-                        .header("Cache-Control", "max-age=3600")
-                        .body(imageData);
-            } catch (RuntimeException ex) {
-                return ResponseEntity.notFound().build();
+                variant = ImageSize.fromKey(size);
+            } catch (IllegalArgumentException ex) {
+                response.setStatus(HttpStatus.BAD_REQUEST.value());
+                response.setContentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8");
+                response.getWriter().write(ex.getMessage());
+                return;
             }
-        }
-
-        private byte[] convertToJpg(byte[] inputBytes, String contentType) throws Exception {
-            java.io.ByteArrayInputStream bais = new java.io.ByteArrayInputStream(inputBytes);
-            java.awt.image.BufferedImage image = javax.imageio.ImageIO.read(bais);
-            
-            if (image == null) {
-                throw new IllegalArgumentException("Não foi possível ler a imagem");
+            try {
+                file = eventService.findImageFile(id, variant);
+            } catch (RuntimeException ex) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            // nome do arquivo = SHA-256 do original (+ variante), usado como ETag forte
+            String tag = file.getFileName().toString().replace(".jpg", "");
+            boolean fallback = variant != null && !tag.endsWith("-" + variant.key());
+            String cacheControl = fallback ? "no-cache" : "max-age=3600";
+            if (!FileResponder.serve(file, MediaType.IMAGE_JPEG_VALUE, tag, cacheControl, request, response)) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+            }
+        }
+
+        /** Escreve os eventos entregues pela fonte como um array JSON, sem montar a lista inteira */
+        private void writeJsonArray(OutputStream out, Consumer<Consumer<Event>> source) throws IOException {
+            try (SequenceWriter writer = objectMapper.writerFor(Event.class).writeValuesAsArray(out)) {
+                source.accept(e -> {
+                    try {
+                        writer.write(e);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
             }
-
-            // Converter para RGB se necessário (remover alpha channel)
-            java.awt.image.BufferedImage rgbImage = new java.awt.image.BufferedImage(
-                    image.getWidth(), image.getHeight(), java.awt.image.BufferedImage.TYPE_INT_RGB);
-            rgbImage.createGraphics().drawImage(image, 0, 0, java.awt.Color.WHITE, null);
-
-            // Escrever como JPG com compressão
-            java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-            javax.imageio.ImageWriteParam jpgWriteParam = javax.imageio.ImageIO
-                    .getImageWritersByFormatName("jpg").next().getDefaultWriteParam();
-            jpgWriteParam.setCompressionMode(javax.imageio.ImageWriteParam.MODE_EXPLICIT);
-            jpgWriteParam.setCompressionQuality(0.85f);
-
-            javax.imageio.ImageWriter writer = javax.imageio.ImageIO.getImageWritersByFormatName("jpg").next();
-            writer.setOutput(new javax.imageio.stream.MemoryCacheImageOutputStream(baos));
-            writer.write(null, new javax.imageio.IIOImage(rgbImage, null, null), jpgWriteParam);
-            writer.dispose();
-
-            return baos.toByteArray();
         }
 
         private List<String> validateEventBasic(Event e) {
@@ -391,20 +520,48 @@ public class BffApplication {
     @RequestMapping("/bff/event-wallets")
     public static class EventWalletBffController {
         private final EventWalletService eventWalletService;
+        private final WaitingRoom waitingRoom;
+        private final IdempotentRequests idempotentRequests;
 
-        public EventWalletBffController(EventWalletService eventWalletService) {
+        public EventWalletBffController(EventWalletService eventWalletService, WaitingRoom waitingRoom,
+                                        IdempotentRequests idempotentRequests) {
             this.eventWalletService = eventWalletService;
+            this.waitingRoom = waitingRoom;
+            this.idempotentRequests = idempotentRequests;
         }
 
+        /** Reenvio com o mesmo Idempotency-Key repete a resposta original (201) em vez de "Vínculo já existente" */
         @PostMapping
-        public ResponseEntity<?> addLink(@RequestBody EventWallet ew) {
+        public ResponseEntity<?> addLink(@RequestBody EventWallet ew, Principal principal,
+                                         @RequestHeader(value = WaitingRoom.TOKEN_HEADER, required = false) String queueToken,
+                                         @RequestHeader(value = IdempotentRequests.KEY_HEADER, required = false) String idempotencyKey) {
+            try {
+                return idempotentRequests.execute("POST /bff/event-wallets", principal.getName(), idempotencyKey, ew,
+                        () -> enroll(ew, principal, queueToken));
+            } catch (InvalidQueueTokenException ex) {
+                // não guardado no Idempotency-Key: o reenvio com uma senha válida inscreve de verdade
+                return ResponseEntity.badRequest().body(ex.getMessage());
+            }
+        }
+
+        private ResponseEntity<?> enroll(EventWallet ew, Principal principal, String queueToken) {
             List<String> errors = validateEventWalletBasic(ew);
             if (!errors.isEmpty()) {
                 return ResponseEntity.badRequest().body(String.join("; ", errors));
             }
             try {
-                EventWallet saved = eventWalletService.addLink(ew);
-                return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+                // vaga e vínculo numa só instrução; lotado/encerrado/duplicado -> 409 com a mensagem.
+                // Evento com fila de espera: só entra quem já foi admitido; os demais voltam com Retry-After
+                EnrollmentStatus status = eventWalletService.enroll(ew, principal.getName(), queueToken);
+                return switch (status) {
+                    case ENROLLED -> ResponseEntity.status(HttpStatus.CREATED).body(ew);
+                    case EVENT_NOT_FOUND, WALLET_NOT_FOUND -> ResponseEntity.badRequest().body(status.getMessage());
+                    default -> ResponseEntity.status(HttpStatus.CONFLICT).body(status.getMessage());
+                };
+            } catch (NotYourTurnException ex) {
+                return notYourTurn(ex.getQueueStatus());
+            } catch (InvalidQueueTokenException ex) {
+                throw ex;
             } catch (IllegalArgumentException ex) {
                 return ResponseEntity.badRequest().body(ex.getMessage());
             } catch (RuntimeException ex) {
@@ -412,6 +569,33 @@ public class BffApplication {
             }
         }
 
+        /**
+         * Entra na fila de espera do evento (ou recupera a senha já emitida). Não consulta o banco.
+         * Evento sem fila: admitted = true e token nulo.
+         */
+        @PostMapping("/queue/{eventId}")
+        public ResponseEntity<QueueStatus> joinQueue(@PathVariable Long eventId, Principal principal) {
+            return ResponseEntity.ok(waitingRoom.join(principal.getName(), eventId));
+        }
+
+        /** Posição na fila a partir da senha (header X-Queue-Token); só verifica a assinatura e lê memória */
+        @GetMapping("/queue/{eventId}")
+        public ResponseEntity<?> queueStatus(@PathVariable Long eventId, Principal principal,
+                                             @RequestHeader(value = WaitingRoom.TOKEN_HEADER, required = false) String queueToken) {
+            try {
+                return ResponseEntity.ok(waitingRoom.status(queueToken, principal.getName(), eventId));
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(ex.getMessage());
+            }
+        }
+
+        /** Ainda não é a vez: 429 com a posição e Retry-After para a próxima consulta */
+        private static ResponseEntity<?> notYourTurn(QueueStatus queue) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(queue.getRetryAfterSeconds()))
+                    .body(queue);
+        }
+
         @PostMapping("/validate")
         public ResponseEntity<?> validateLink(@RequestBody EventWallet ew) {
             List<String> errors = validateEventWalletBasic(ew);
@@ -0,0 +1,135 @@
+package com.gerenciador.eventos.bff;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Envia um arquivo imutável do disco direto para a resposta, sem passar por byte[] nem pelos conversores.
+ *
+ * - ETag forte fornecida pelo chamador (o hash do conteúdo); If-None-Match igual responde 304 sem corpo.
+ * - Range de um intervalo (bytes=a-b, bytes=a-, bytes=-n) responde 206; fora do arquivo, 416.
+ *   Vários intervalos ou If-Range com outra ETag: arquivo inteiro (permitido pela RFC 9110).
+ * - Corpo via sendfile do Tomcat quando o conector suporta (o kernel copia do page cache para o socket);
+ *   senão FileChannel.transferTo para o stream da resposta.
+ */
+final class FileResponder {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /** Marcador de Range válido, mas fora do arquivo */
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private FileResponder() {
+    }
+
+    /** @return false se o arquivo não existir (nada foi escrito na resposta) */
+    static boolean serve(Path file, String contentType, String hash, String cacheControl,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + hash + "\"";
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+            if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return true;
+            }
+
+            long start = 0;
+            long end = length - 1;
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            long[] range = (ifRange == null || ifRange.equals(etag))
+                    ? parseRange(request.getHeader(HttpHeaders.RANGE), length) : null;
+            if (range == UNSATISFIABLE) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return true;
+            }
+            if (range != null) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            } else {
+                response.setStatus(HttpStatus.OK.value());
+            }
+            long count = end - start + 1;
+            response.setContentType(contentType);
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod()) || count == 0) return true;
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // o Tomcat envia depois que o handler retorna; o arquivo é imutável, então fechar o canal aqui é seguro
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return true;
+            }
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (count > 0) {
+                long sent = channel.transferTo(position, count, out);
+                position += sent;
+                count -= sent;
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Intervalo [início, fim] (inclusivo) pedido no cabeçalho Range, ou null para enviar o arquivo inteiro
+     * (sem Range, sintaxe desconhecida ou vários intervalos).
+     */
+    static long[] parseRange(String header, long length) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // sufixo: últimos n bytes
+                if (last.isEmpty()) return null;
+                long n = Long.parseLong(last);
+                if (n <= 0 || length == 0) return UNSATISFIABLE;
+                return new long[] { Math.max(0, length - n), length - 1 };
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length) return UNSATISFIABLE;
+            if (end < start) return null;
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2); // If-None-Match usa comparação fraca
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,227 @@
+package com.gerenciador.eventos.bff;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gerenciador.eventos.Repository.IdempotencyRepository;
+import com.gerenciador.eventos.Repository.IdempotencyRepository.StoredResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Header Idempotency-Key nos POSTs que o app móvel reenvia (inscrição e criação de evento): a primeira
+ * execução guarda status, headers (ex.: Location) e corpo da resposta e as repetições recebem a mesma
+ * resposta, com o header Idempotent-Replayed, sem passar de novo pelas validações e consultas.
+ *
+ * - A chave vale por rota e por usuário (subject do JWT); reutilizá-la com outro corpo responde 422.
+ * - Repetições que chegam enquanto a primeira ainda executa esperam por ela em vez de executar em paralelo.
+ * - 5xx e 429 não são guardados (o cliente deve poder tentar de novo de verdade); exceções lançadas pela
+ *   ação também não (ex.: InvalidQueueTokenException, que a rota transforma em 400 fora daqui).
+ * - Memória limitada por idempotency.maxBytes (corpo das respostas) e idempotency.ttlSeconds; com
+ *   idempotency.persist as respostas também vão para a tabela idempotency_key e sobrevivem a reinícios.
+ * Sem o header, o pedido executa normalmente.
+ *
+ * Métricas: idempotency.replayed (respostas repetidas), idempotency.mismatch (chave com outro corpo) e
+ * idempotency.persist.failed (respostas que não foram gravadas na tabela e ficaram só na memória).
+ */
+@Component
+public class IdempotentRequests {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentRequests.class);
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    /** Tamanho máximo aceito para a chave enviada pelo cliente */
+    private static final int MAX_KEY_LENGTH = 255;
+    /** Custo fixo estimado de cada entrada além do corpo (chave, hash, objetos) */
+    private static final int ENTRY_OVERHEAD = 256;
+    /** Headers que a repetição recalcula em vez de copiar da resposta original */
+    private static final List<String> COMPUTED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, REPLAYED_HEADER);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${idempotency.maxBytes}")
+    private long maxBytes;
+
+    @Value("${idempotency.ttlSeconds}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.persist}")
+    private boolean persist;
+
+    private AsyncCache<String, StoredResponse> responses;
+    private Counter replayed;
+    private Counter mismatch;
+    private Counter persistFailed;
+
+    @PostConstruct
+    void init() {
+        // futures que completam com null (resposta não guardável) ou com erro saem do cache sozinhos
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, StoredResponse r) -> ENTRY_OVERHEAD + key.length()
+                        + (r.headers() != null ? r.headers().length() : 0) + r.body().length)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .buildAsync();
+        replayed = Counter.builder("idempotency.replayed").register(meterRegistry);
+        mismatch = Counter.builder("idempotency.mismatch").register(meterRegistry);
+        persistFailed = Counter.builder("idempotency.persist.failed").register(meterRegistry);
+    }
+
+    /**
+     * Executa action uma única vez por (rota, usuário, chave) e repete a resposta guardada nas demais vezes.
+     * @param route identifica o endpoint (ex.: "POST /bff/events")
+     * @param subject usuário autenticado (null = anônimo)
+     * @param key valor do header Idempotency-Key (null/vazio = sem idempotência)
+     * @param request corpo do pedido, comparado com o da primeira execução
+     */
+    public ResponseEntity<?> execute(String route, String subject, String key, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(KEY_HEADER + " deve ter até " + MAX_KEY_LENGTH + " caracteres");
+        }
+        String cacheKey = route + "\n" + subject + "\n" + key;
+        String requestHash = sha256(serialize(request));
+        while (true) {
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> existing = responses.asMap().putIfAbsent(cacheKey, mine);
+            if (existing == null) return executeOnce(cacheKey, requestHash, action, mine);
+            StoredResponse stored;
+            try {
+                stored = existing.join();
+            } catch (CompletionException e) {
+                stored = null; // a primeira execução falhou: esta tenta de novo
+            }
+            if (stored != null) return replay(stored, requestHash);
+        }
+    }
+
+    private ResponseEntity<?> executeOnce(String cacheKey, String requestHash, Supplier<ResponseEntity<?>> action,
+                                          CompletableFuture<StoredResponse> mine) {
+        try {
+            if (persist) {
+                StoredResponse stored = idempotencyRepository.find(cacheKey, LocalDateTime.now().minusSeconds(ttlSeconds));
+                if (stored != null) {
+                    mine.complete(stored);
+                    return replay(stored, requestHash);
+                }
+            }
+            ResponseEntity<?> response = action.get();
+            StoredResponse stored = storable(response) ? store(requestHash, response) : null;
+            if (stored != null && persist) {
+                try {
+                    idempotencyRepository.save(cacheKey, stored, LocalDateTime.now().minusSeconds(ttlSeconds));
+                } catch (RuntimeException ex) {
+                    // banco indisponível: a resposta fica só na memória desta instância
+                    persistFailed.increment();
+                    log.warn("Resposta idempotente não gravada no banco: {}", ex.getMessage());
+                }
+            }
+            mine.complete(stored);
+            return response;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            mismatch.increment();
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(KEY_HEADER + " já usada com outro pedido");
+        }
+        replayed.increment();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status());
+        if (stored.headers() != null) {
+            for (String line : stored.headers().split("\n")) {
+                int colon = line.indexOf(':');
+                if (colon > 0) builder.header(line.substring(0, colon), line.substring(colon + 2));
+            }
+        }
+        builder.header(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) builder.contentType(MediaType.parseMediaType(stored.contentType()));
+        return builder.body(stored.body());
+    }
+
+    private static boolean storable(ResponseEntity<?> response) {
+        HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
+        return status != null && !status.is5xxServerError() && status != HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    // texto vai como text/plain (como o StringHttpMessageConverter), o resto como JSON
+    private StoredResponse store(String requestHash, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        int status = response.getStatusCode().value();
+        String headers = headersOf(response.getHeaders());
+        if (body == null) return new StoredResponse(requestHash, status, null, headers, new byte[0]);
+        if (body instanceof String text) {
+            return new StoredResponse(requestHash, status, "text/plain;charset=UTF-8", headers,
+                    text.getBytes(StandardCharsets.UTF_8));
+        }
+        return new StoredResponse(requestHash, status, MediaType.APPLICATION_JSON_VALUE, headers, serialize(body));
+    }
+
+    /** Headers da resposta (menos os recalculados), uma linha "Nome: valor" por valor; null se não houver */
+    private static String headersOf(HttpHeaders headers) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, List<String>> header : headers.headerSet()) {
+            if (COMPUTED_HEADERS.stream().anyMatch(header.getKey()::equalsIgnoreCase)) continue;
+            for (String value : header.getValue()) {
+                if (sb.length() > 0) sb.append('\n');
+                sb.append(header.getKey()).append(": ").append(value);
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar para idempotência", e);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.gerenciador.eventos.security;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,12 +20,20 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Set<String> PUBLIC_PATHS = Set.of(SecurityConfig.PUBLIC_PATHS);
+
     private final JwtUtil jwtUtil;
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil) {
         this.jwtUtil = jwtUtil;
     }
 
+    // Rotas públicas não dependem de autenticação: nenhum trabalho de JWT
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PUBLIC_PATHS.contains(request.getServletPath());
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -33,8 +42,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
             token = header.substring(7);
         }
-        if (token != null && jwtUtil.isTokenValid(token) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            String subject = jwtUtil.extractSubject(token);
+        // um único parse (ou acerto no cache de tokens verificados) por requisição
+        String subject = (token != null && SecurityContextHolder.getContext().getAuthentication() == null)
+                ? jwtUtil.validSubject(token) : null;
+        if (subject != null) {
             // Simples UserDetails (sem roles dinâmicas por enquanto)
             UserDetails userDetails = User.withUsername(subject).password("").authorities("USER").build();
             UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -2,14 +2,21 @@ package com.gerenciador.eventos.security;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtil {
@@ -20,10 +27,43 @@ public class JwtUtil {
     @Value("${jwt.expirationSeconds}")
     private long expirationSeconds;
 
-    private Key getSigningKey() {
+    @Value("${jwt.verifiedCacheMaxSize}")
+    private long verifiedCacheMaxSize;
+
+    // Chave e parser são imutáveis e thread-safe: montados uma vez na inicialização
+    private Key signingKey;
+    private JwtParser parser;
+
+    /**
+     * Tokens já verificados (assinatura + expiração) -> subject, cada um guardado até o próprio exp.
+     * Evita refazer o HMAC a cada requisição do mesmo cliente; tamanho limitado para não crescer sem fim.
+     */
+    private Cache<String, Verified> verified;
+
+    @PostConstruct
+    void init() {
         // Usa a secret diretamente (deve ter pelo menos 256 bits / 32 bytes para HS256)
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Verified>() {
+                    @Override
+                    public long expireAfterCreate(String token, Verified v, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, v.expiresAt - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Verified v, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Verified v, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String subject) {
@@ -33,28 +73,39 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(exp)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            return claims.getExpiration().after(new Date());
-        } catch (Exception e) {
-            return false;
+    /**
+     * Subject de um token válido (assinatura confere e não expirado), ou null.
+     * Faz no máximo um parse por token enquanto ele estiver no cache de verificados.
+     */
+    public String validSubject(String token) {
+        Verified v = verified.getIfPresent(token);
+        if (v == null) {
+            try {
+                Claims claims = extractAllClaims(token);
+                v = new Verified(claims.getSubject(), claims.getExpiration().getTime());
+            } catch (Exception e) {
+                return null;
+            }
+            verified.put(token, v);
         }
+        return v.expiresAt > System.currentTimeMillis() ? v.subject : null;
     }
 
-    public String extractSubject(String token) {
-        return extractAllClaims(token).getSubject();
+    private Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static final class Verified {
+        final String subject;
+        final long expiresAt;
+
+        Verified(String subject, long expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
     }
 }
@@ -0,0 +1,222 @@
+package com.gerenciador.eventos.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Executa o BCrypt (hash e verificação de senha) em um pool próprio, fora das threads do Tomcat.
+ *
+ * O pool tem uma thread por núcleo (password.hash.threads) e fila limitada (password.hash.queueCapacity):
+ * uma rajada de logins ocupa no máximo esses núcleos e, com a fila cheia, o pedido falha na hora com
+ * PasswordHashingBusyException (503 + Retry-After) em vez de segurar threads de request. O seed em lote
+ * (encodeAll) não falha: espera a fila ter espaço.
+ *
+ * Métricas: password.hash.wait (tempo na fila) e password.hash.duration (tempo do BCrypt), com tag
+ * op=encode|matches; password.hash.rejected; executor.* (tag name=password.hash) para fila e threads ativas;
+ * password.hash.cost (custo BCrypt em uso).
+ *
+ * Custo: password.bcrypt.strength é o piso. Com password.bcrypt.targetMillis > 0 o custo é calibrado na
+ * inicialização para a maior potência que ainda fica dentro da meta nesta máquina. O custo vai no próprio
+ * hash ($2a$NN$...); hashes com custo diferente do atual são refeitos no próximo login (needsRehash).
+ */
+@Component
+public class PasswordHasher {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** 0 = número de núcleos */
+    @Value("${password.hash.threads}")
+    private int threads;
+
+    @Value("${password.hash.queueCapacity}")
+    private int queueCapacity;
+
+    @Value("${password.hash.retryAfterSeconds}")
+    private long retryAfterSeconds;
+
+    @Value("${password.bcrypt.strength}")
+    private int minStrength;
+
+    /** 0 = sem calibração, usa password.bcrypt.strength */
+    @Value("${password.bcrypt.targetMillis}")
+    private long targetMillis;
+
+    /** Limite do BCrypt: log2 das rodadas vai de 4 a 31 */
+    private static final int MAX_STRENGTH = 31;
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    /** Pausa do seed em lote entre tentativas quando a fila do pool está cheia */
+    private static final long BATCH_RETRY_MILLIS = 50;
+
+    private int strength;
+    private BCryptPasswordEncoder passwordEncoder;
+    private ThreadPoolExecutor executor;
+    private Timer encodeWait;
+    private Timer encodeDuration;
+    private Timer matchesWait;
+    private Timer matchesDuration;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        strength = targetMillis > 0 ? calibrate(minStrength, targetMillis) : minStrength;
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        Gauge.builder("password.hash.cost", this, h -> h.strength).register(meterRegistry);
+
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password.hash", Tags.empty()).bindTo(meterRegistry);
+        encodeWait = timer("password.hash.wait", "encode");
+        encodeDuration = timer("password.hash.duration", "encode");
+        matchesWait = timer("password.hash.wait", "matches");
+        matchesDuration = timer("password.hash.duration", "matches");
+        rejected = Counter.builder("password.hash.rejected").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword), encodeWait, encodeDuration));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesWait, matchesDuration));
+    }
+
+    /**
+     * true se o hash foi gerado com custo diferente do atual (ou não é BCrypt) e deve ser refeito
+     * assim que a senha em texto estiver disponível (login).
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) return false;
+        Matcher m = BCRYPT_COST.matcher(encodedPassword);
+        return !m.find() || Integer.parseInt(m.group(1)) != strength;
+    }
+
+    /**
+     * Hash de várias senhas (seed em lote), na mesma ordem.
+     * Envia em ondas do tamanho do pool para não ocupar a fila que atende os logins; com a fila
+     * cheia espera abrir espaço em vez de lançar PasswordHashingBusyException.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        int wave = executor.getMaximumPoolSize();
+        for (int from = 0; from < rawPasswords.size(); from += wave) {
+            List<Future<String>> pending = new ArrayList<>();
+            for (String raw : rawPasswords.subList(from, Math.min(from + wave, rawPasswords.size()))) {
+                pending.add(submitWhenFree(() -> passwordEncoder.encode(raw), encodeWait, encodeDuration));
+            }
+            for (Future<String> f : pending) {
+                hashes.add(await(f));
+            }
+        }
+        return hashes;
+    }
+
+    private <T> Future<T> submit(Callable<T> task, Timer wait, Timer duration) {
+        try {
+            return timed(task, wait, duration);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        }
+    }
+
+    /** Como submit, mas com a fila cheia tenta de novo após BATCH_RETRY_MILLIS (não conta em rejected) */
+    private <T> Future<T> submitWhenFree(Callable<T> task, Timer wait, Timer duration) {
+        while (true) {
+            try {
+                return timed(task, wait, duration);
+            } catch (RejectedExecutionException e) {
+                try {
+                    Thread.sleep(BATCH_RETRY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrompido aguardando hash de senha", ie);
+                }
+            }
+        }
+    }
+
+    private <T> Future<T> timed(Callable<T> task, Timer wait, Timer duration) {
+        long queuedAt = System.nanoTime();
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            wait.record(start - queuedAt, TimeUnit.NANOSECONDS);
+            try {
+                return task.call();
+            } finally {
+                duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando hash de senha", e);
+        } catch (ExecutionException e) {
+            // repassa a exceção original do PasswordEncoder (ex.: senha nula)
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Erro ao processar senha", e.getCause());
+        }
+    }
+
+    /**
+     * Mede o custo mínimo nesta máquina e sobe enquanto o tempo estimado couber na meta.
+     * Cada +1 no custo dobra o trabalho, então basta medir uma vez no piso (não roda custos altos
+     * só para descobrir que passam da meta).
+     */
+    private static int calibrate(int minStrength, long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibracao"); // aquecimento (JIT)
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibracao");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int cost = minStrength;
+        double millis = best / 1_000_000.0;
+        while (cost < MAX_STRENGTH && millis * 2 <= targetMillis) {
+            cost++;
+            millis *= 2;
+        }
+        return cost;
+    }
+
+    private Timer timer(String name, String op) {
+        return Timer.builder(name).tag("op", op).register(meterRegistry);
+    }
+}
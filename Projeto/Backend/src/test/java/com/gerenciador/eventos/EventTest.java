@@ -1,18 +1,36 @@
 package com.gerenciador.eventos;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import javax.imageio.ImageIO;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 
+import com.gerenciador.eventos.POJO.CursorPage;
 import com.gerenciador.eventos.POJO.Event;
+import com.gerenciador.eventos.POJO.ImageSize;
 import com.gerenciador.eventos.POJO.User;
 import com.gerenciador.eventos.Service.EventService;
+import com.gerenciador.eventos.Service.ImageCodec;
 import com.gerenciador.eventos.Service.UserService;
 import com.gerenciador.eventos.TestSupport.GlobalDbTruncator;
 
@@ -27,6 +45,12 @@ public class EventTest {
     @Autowired
     private EventService eventService;
 
+    @Autowired
+    private DatabaseConnection databaseConnection;
+
+    @Autowired
+    private ImageCodec imageCodec;
+
     // Limpeza suite-level via GlobalDbTruncator
 
     @Test
@@ -58,4 +82,290 @@ public class EventTest {
         assertNotNull(saved.getCreatedAt());
         assertNotNull(saved.getUpdatedAt());
     }
+
+    @Test
+    public void testFindByIdAfterUpdate() {
+        User creator = new User();
+        creator.setName("Cacheado");
+        creator.setEmail("cache@example.com");
+        creator = userService.createUser(creator);
+
+        Event e = new Event();
+        e.setCreator_id(creator.getId());
+        e.setEvent_name("Evento Cache");
+        e.setIs_EAD(true);
+        e.setEvent_date(LocalDateTime.now().plusDays(5));
+        e.setQuantity(10);
+        e.setDescription("antes");
+        e = eventService.createEvent(e);
+
+        // primeira leitura popula o cache; alterar a cópia devolvida não pode afetar a próxima leitura
+        Event first = eventService.findById(e.getEvent_id());
+        first.setDescription("alterado fora do update");
+        assertEquals("antes", eventService.findById(e.getEvent_id()).getDescription());
+
+        // update invalida a entrada: a leitura seguinte vem do banco
+        first.setDescription("depois");
+        eventService.updateEvent(first);
+        assertEquals("depois", eventService.findById(e.getEvent_id()).getDescription());
+    }
+
+    // Sem consulta prévia: Event_event_name_key decide no INSERT e no UPDATE
+    @Test
+    public void testUniqueEventNameConstraintMessage() {
+        User creator = new User();
+        creator.setName("Dono dos Nomes");
+        creator.setEmail("nomes@example.com");
+        creator = userService.createUser(creator);
+
+        Event first = new Event();
+        first.setCreator_id(creator.getId());
+        first.setEvent_name("Evento Único");
+        first.setIs_EAD(true);
+        first.setEvent_date(LocalDateTime.now().plusDays(5));
+        first.setQuantity(0);
+        first.setDescription("desc");
+        eventService.createEvent(first);
+
+        Event same = new Event();
+        same.setCreator_id(creator.getId());
+        same.setEvent_name("Evento Único");
+        same.setIs_EAD(true);
+        same.setEvent_date(LocalDateTime.now().plusDays(6));
+        same.setQuantity(0);
+        same.setDescription("desc");
+        IllegalArgumentException onCreate = assertThrows(IllegalArgumentException.class,
+                () -> eventService.createEvent(same));
+        assertEquals("Nome de evento já existente: Evento Único", onCreate.getMessage());
+
+        same.setEvent_name("Evento Outro");
+        Event other = eventService.createEvent(same);
+        other.setEvent_name("Evento Único");
+        IllegalArgumentException onUpdate = assertThrows(IllegalArgumentException.class,
+                () -> eventService.updateEvent(other));
+        assertEquals("Nome de evento já existente: Evento Único", onUpdate.getMessage());
+    }
+
+    @Test
+    public void testUpdateKeepsEnrollmentCount() throws Exception {
+        User creator = new User();
+        creator.setName("Edita Capacidade");
+        creator.setEmail("capacidade@example.com");
+        creator = userService.createUser(creator);
+
+        Event e = new Event();
+        e.setCreator_id(creator.getId());
+        e.setEvent_name("Evento Com Inscritos");
+        e.setIs_EAD(false);
+        e.setAddress("Sala 1");
+        e.setLot_quantity(10);
+        e.setEvent_date(LocalDateTime.now().plusDays(5));
+        e.setDescription("desc");
+        e = eventService.createEvent(e);
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE event SET quant = 3 WHERE event_id = ?")) {
+            stmt.setLong(1, e.getEvent_id());
+            stmt.executeUpdate();
+        }
+
+        // a tela de edição devolve o quant que leu antes: o servidor ignora e mantém a contagem
+        e.setQuantity(0);
+        e.setDescription("editado");
+        Event updated = eventService.updateEvent(e);
+        assertEquals(3, updated.getQuantity());
+        assertEquals(3, eventService.findById(e.getEvent_id()).getQuantity());
+
+        e.setLot_quantity(2);
+        Event shrunk = e;
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> eventService.updateEvent(shrunk));
+        assertTrue(ex.getMessage().contains("menor que o número de inscritos"));
+        assertEquals(10, eventService.findById(e.getEvent_id()).getLot_quantity());
+    }
+
+    @Test
+    public void testBlankSearchListsUpcomingEvents() throws Exception {
+        User creator = new User();
+        creator.setName("Agenda");
+        creator.setEmail("agenda@example.com");
+        creator = userService.createUser(creator);
+        Event past = new Event();
+        past.setCreator_id(creator.getId());
+        past.setEvent_name("Evento Passado");
+        past.setIs_EAD(true);
+        past.setEvent_date(LocalDateTime.now().plusDays(1));
+        past = eventService.createEvent(past);
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE event SET event_date = now() - interval '1 day', buy_time_limit = now() - interval '2 days' WHERE event_id = ?")) {
+            stmt.setLong(1, past.getEvent_id());
+            stmt.executeUpdate();
+        }
+        Event upcoming = new Event();
+        upcoming.setCreator_id(creator.getId());
+        upcoming.setEvent_name("Evento Futuro");
+        upcoming.setIs_EAD(true);
+        upcoming.setEvent_date(LocalDateTime.now().plusDays(2));
+        upcoming = eventService.createEvent(upcoming);
+
+        // sem termo: só eventos de agora em diante (a tela inicial não pagina)
+        Set<Long> ids = new HashSet<>();
+        for (Event e : eventService.searchEvents("", EventService.MAX_PAGE_SIZE)) {
+            ids.add(e.getEvent_id());
+            assertTrue(!e.getEvent_date().isBefore(LocalDateTime.now().minusMinutes(1)));
+        }
+        assertTrue(ids.contains(upcoming.getEvent_id()));
+        assertTrue(!ids.contains(past.getEvent_id()));
+    }
+
+    @Test
+    public void testKeysetPagination() {
+        User creator = new User();
+        creator.setName("Paginator");
+        creator.setEmail("paginator@example.com");
+        creator = userService.createUser(creator);
+
+        // três eventos com datas distintas, criados fora de ordem
+        LocalDateTime base = LocalDateTime.now().plusYears(5);
+        String[] names = {"Pagina C", "Pagina A", "Pagina B"};
+        int[] offsets = {3, 1, 2};
+        for (int i = 0; i < names.length; i++) {
+            Event e = new Event();
+            e.setCreator_id(creator.getId());
+            e.setEvent_name(names[i]);
+            e.setIs_EAD(true);
+            e.setEvent_date(base.plusDays(offsets[i]));
+            e.setQuantity(10);
+            e.setDescription("desc");
+            eventService.createEvent(e);
+        }
+
+        // percorre todas as páginas com tamanho 2
+        List<String> seen = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        String cursor = null;
+        do {
+            CursorPage<Event> page = eventService.listEvents(cursor, 2);
+            assertTrue(page.getItems().size() <= 2);
+            for (Event e : page.getItems()) {
+                assertTrue(ids.add(e.getEvent_id()), "evento repetido entre páginas");
+                seen.add(e.getEvent_name());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<String> ours = new ArrayList<>();
+        for (String n : seen) {
+            if (n.startsWith("Pagina ")) ours.add(n);
+        }
+        assertEquals(List.of("Pagina A", "Pagina B", "Pagina C"), ours, "ordem por event_date");
+
+        // mesma ordem filtrando pelo criador, com contagem
+        assertEquals(3, eventService.countByCreatorId(creator.getId()));
+        CursorPage<Event> first = eventService.findByCreatorId(creator.getId(), null, 2);
+        assertEquals(List.of("Pagina A", "Pagina B"), first.getItems().stream().map(Event::getEvent_name).toList());
+        CursorPage<Event> last = eventService.findByCreatorId(creator.getId(), first.getNextCursor(), 2);
+        assertEquals(List.of("Pagina C"), last.getItems().stream().map(Event::getEvent_name).toList());
+        assertNull(last.getNextCursor());
+        assertEquals(List.of("Pagina A", "Pagina B", "Pagina C"),
+                eventService.findAllByCreatorId(creator.getId()).stream().map(Event::getEvent_name).toList());
+    }
+
+    @Test
+    public void testImageStoredByHash() throws Exception {
+        User creator = new User();
+        creator.setName("Fotografo");
+        creator.setEmail("foto@example.com");
+        creator = userService.createUser(creator);
+
+        Event a = new Event();
+        a.setCreator_id(creator.getId());
+        a.setEvent_name("Imagem A");
+        a.setIs_EAD(true);
+        a.setEvent_date(LocalDateTime.now().plusDays(3));
+        a = eventService.createEvent(a);
+        Event b = new Event();
+        b.setCreator_id(creator.getId());
+        b.setEvent_name("Imagem B");
+        b.setIs_EAD(true);
+        b.setEvent_date(LocalDateTime.now().plusDays(3));
+        b = eventService.createEvent(b);
+
+        // upload grava o arquivo pelo hash; mesmo conteúdo em outro evento reaproveita o arquivo
+        byte[] jpg = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9};
+        eventService.updateImage(a.getEvent_id(), jpg);
+        eventService.updateImage(b.getEvent_id(), jpg);
+        Path file = eventService.findImageFile(a.getEvent_id());
+        assertArrayEquals(jpg, Files.readAllBytes(file));
+        assertEquals(file, eventService.findImageFile(b.getEvent_id()));
+        assertEquals(file.getFileName().toString(), eventService.findById(a.getEvent_id()).getImage_hash() + ".jpg");
+
+        // imagem legada em image_data vai para o disco e a coluna é limpa
+        byte[] legacy = {(byte) 0xFF, (byte) 0xD8, 9, 9, (byte) 0xFF, (byte) 0xD9};
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE event SET image_data = ?, image_hash = NULL WHERE event_id = ?")) {
+            stmt.setBytes(1, legacy);
+            stmt.setLong(2, b.getEvent_id());
+            stmt.executeUpdate();
+        }
+        eventService.migrateLegacyImages();
+        Event migrated = eventService.findById(b.getEvent_id());
+        assertNotNull(migrated.getImage_hash());
+        assertArrayEquals(legacy, Files.readAllBytes(eventService.findImageFile(b.getEvent_id())));
+    }
+
+    @Test
+    public void testImageVariants() throws Exception {
+        User creator = new User();
+        creator.setName("Miniaturas");
+        creator.setEmail("thumb@example.com");
+        creator = userService.createUser(creator);
+        Event e = new Event();
+        e.setCreator_id(creator.getId());
+        e.setEvent_name("Evento Variantes");
+        e.setIs_EAD(true);
+        e.setEvent_date(LocalDateTime.now().plusDays(3));
+        e = eventService.createEvent(e);
+
+        BufferedImage big = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+        eventService.updateImage(e.getEvent_id(), ImageCodec.writeJpeg(big));
+        Path original = eventService.findImageFile(e.getEvent_id());
+
+        // prévia inline: cor média + 4x2 pixels (proporção 2:1), gravada no upload
+        byte[] placeholder = java.util.Base64.getDecoder()
+                .decode(eventService.findById(e.getEvent_id()).getImage_placeholder());
+        assertEquals(5 + 4 * 2 * 3, placeholder.length);
+        assertEquals(4, placeholder[3]);
+        assertEquals(2, placeholder[4]);
+
+        // geração é assíncrona: até ficar pronta, ?size= devolve o original
+        Path thumb = original;
+        for (int i = 0; i < 100 && thumb.equals(original); i++) {
+            Thread.sleep(50);
+            thumb = eventService.findImageFile(e.getEvent_id(), ImageSize.THUMB);
+        }
+        BufferedImage t = ImageIO.read(new ByteArrayInputStream(Files.readAllBytes(thumb)));
+        assertEquals(160, t.getWidth());
+        assertEquals(80, t.getHeight());
+        assertEquals(original, eventService.findImageFile(e.getEvent_id(), null));
+    }
+
+    @Test
+    public void testImageDecodeSubsampled() throws Exception {
+        // PNG grande com alpha: sai RGB já reduzida, proporção mantida
+        BufferedImage png = new BufferedImage(6000, 3000, BufferedImage.TYPE_INT_ARGB);
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        ImageIO.write(png, "png", out);
+        BufferedImage decoded = imageCodec.decode(out.toByteArray(), 1000);
+        assertEquals(1000, decoded.getWidth());
+        assertEquals(500, decoded.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, decoded.getType());
+
+        BufferedImage jpg = ImageIO.read(new ByteArrayInputStream(imageCodec.toJpeg(out.toByteArray(), 800)));
+        assertEquals(800, jpg.getWidth());
+        assertEquals(400, jpg.getHeight());
+
+        assertThrows(IllegalArgumentException.class, () -> imageCodec.toJpeg(new byte[] { 1, 2, 3 }, 800));
+    }
 }
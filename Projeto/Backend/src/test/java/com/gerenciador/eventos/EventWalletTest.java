@@ -1,8 +1,19 @@
 package com.gerenciador.eventos;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
@@ -10,15 +21,28 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
+import com.gerenciador.eventos.POJO.CursorPage;
+import com.gerenciador.eventos.POJO.EnrollmentStatus;
 import com.gerenciador.eventos.POJO.Event;
 import com.gerenciador.eventos.POJO.EventWallet;
+import com.gerenciador.eventos.POJO.QueueStatus;
 import com.gerenciador.eventos.POJO.User;
+import com.gerenciador.eventos.POJO.UserEvent;
+import com.gerenciador.eventos.Repository.EventWalletRepository;
 import com.gerenciador.eventos.Service.EventService;
 import com.gerenciador.eventos.Service.EventWalletService;
 import com.gerenciador.eventos.Service.MyWalletService;
+import com.gerenciador.eventos.Service.SeatInventory;
 import com.gerenciador.eventos.Service.UserService;
+import com.gerenciador.eventos.Service.WaitingRoom;
 import com.gerenciador.eventos.TestSupport.GlobalDbTruncator;
+import com.gerenciador.eventos.bff.BffApplication;
+import com.gerenciador.eventos.bff.IdempotentRequests;
 
 @SpringBootTest
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -37,6 +61,18 @@ public class EventWalletTest {
     @Autowired
     private EventWalletService eventWalletService;
 
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private WaitingRoom waitingRoom;
+
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+
+    @Autowired
+    private EventWalletRepository eventWalletRepository;
+
     // Limpeza suite-level via GlobalDbTruncator
 
     @Test
@@ -77,4 +113,300 @@ public class EventWalletTest {
         });
         assertTrue(ex.getMessage().contains("Vínculo já existente"));
     }
+
+    // Sem exists() antes do INSERT: WalletEvent_pkey decide e a mensagem é a da antiga verificação
+    @Test
+    public void testWalletEventPrimaryKeyMessage() {
+        User u = new User();
+        u.setName("Dono Vinculo PK");
+        u.setEmail("pk@example.com");
+        u = userService.createUser(u);
+        myWalletService.ensureExists(u.getId());
+
+        Event e = new Event();
+        e.setCreator_id(u.getId());
+        e.setEvent_name("Evento PK");
+        e.setIs_EAD(true);
+        e.setEvent_date(LocalDateTime.now().plusDays(10));
+        e.setQuantity(0);
+        e.setDescription("desc");
+        e = eventService.createEvent(e);
+
+        eventWalletRepository.save(new EventWallet(u.getId(), e.getEvent_id()));
+        EventWallet again = new EventWallet(u.getId(), e.getEvent_id());
+        DuplicateKeyException ex = assertThrows(DuplicateKeyException.class, () -> eventWalletRepository.save(again));
+        assertEquals("Vínculo já existente", ex.getMessage());
+    }
+
+    @Test
+    public void testUserEventsInOneQuery() {
+        User a = new User();
+        a.setName("Meus Eventos");
+        a.setEmail("mine@example.com");
+        a = userService.createUser(a);
+        User b = new User();
+        b.setName("Outro Criador");
+        b.setEmail("other@example.com");
+        b = userService.createUser(b);
+
+        Event own = newEvent(a.getId(), "Evento Proprio", 1);
+        Event other = newEvent(b.getId(), "Evento Inscrito", 2);
+        newEvent(b.getId(), "Evento Alheio", 3);
+        eventWalletService.addLink(new EventWallet(a.getId(), own.getEvent_id()));
+        eventWalletService.addLink(new EventWallet(a.getId(), other.getEvent_id()));
+
+        // ordem por data; o próprio evento aparece uma vez, com os dois indicadores
+        CursorPage<UserEvent> first = eventService.findForUser(a.getId(), null, 1);
+        assertEquals(1, first.getItems().size());
+        assertEquals(own.getEvent_id(), first.getItems().get(0).getEvent().getEvent_id());
+        assertTrue(first.getItems().get(0).isEnrolled());
+        assertTrue(first.getItems().get(0).isCreated());
+        assertNotNull(first.getNextCursor());
+
+        CursorPage<UserEvent> second = eventService.findForUser(a.getId(), first.getNextCursor(), 10);
+        assertEquals(1, second.getItems().size());
+        assertEquals(other.getEvent_id(), second.getItems().get(0).getEvent().getEvent_id());
+        assertTrue(second.getItems().get(0).isEnrolled());
+        assertFalse(second.getItems().get(0).isCreated());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void testEnrollRespectsCapacityUnderConcurrency() throws Exception {
+        User creator = new User();
+        creator.setName("Organizador");
+        creator.setEmail("capacity@example.com");
+        creator = userService.createUser(creator);
+        Event e = new Event();
+        e.setCreator_id(creator.getId());
+        e.setEvent_name("Evento Lotado");
+        e.setIs_EAD(false);
+        e.setAddress("Auditório");
+        e.setLot_quantity(3);
+        e.setEvent_date(LocalDateTime.now().plusDays(5));
+        e = eventService.createEvent(e);
+        final Long eventId = e.getEvent_id();
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User u = new User();
+            u.setName("Fila " + i);
+            u.setEmail("fila" + i + "@example.com");
+            userIds.add(userService.createUser(u).getId());
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(10);
+        List<Future<EnrollmentStatus>> results = new ArrayList<>();
+        for (Long uid : userIds) {
+            results.add(pool.submit(() -> eventWalletService.enroll(new EventWallet(uid, eventId))));
+        }
+        Map<EnrollmentStatus, Integer> count = new EnumMap<>(EnrollmentStatus.class);
+        for (Future<EnrollmentStatus> r : results) count.merge(r.get(), 1, Integer::sum);
+        pool.shutdown();
+        assertEquals(3, count.get(EnrollmentStatus.ENROLLED));
+        assertEquals(7, count.get(EnrollmentStatus.SOLD_OUT));
+        assertEquals(3, eventService.findById(eventId).getQuantity());
+
+        // repetir a inscrição não ocupa outra vaga; cancelar devolve a vaga
+        Long enrolledUser = userIds.stream()
+                .filter(uid -> !eventWalletService.listByUser(uid).isEmpty()).findFirst().orElseThrow();
+        assertEquals(EnrollmentStatus.DUPLICATE, eventWalletService.enroll(new EventWallet(enrolledUser, eventId)));
+        eventWalletService.removeLink(enrolledUser, eventId);
+        assertEquals(2, eventService.findById(eventId).getQuantity());
+
+        // inscrições encerradas (buy_time_limit no passado)
+        Event closed = new Event();
+        closed.setCreator_id(creator.getId());
+        closed.setEvent_name("Evento Encerrado");
+        closed.setIs_EAD(true);
+        closed.setEvent_date(LocalDateTime.now().plusDays(5));
+        closed.setBuy_time_limit(LocalDateTime.now().minusDays(1));
+        closed = eventService.createEvent(closed);
+        assertEquals(EnrollmentStatus.SALES_CLOSED,
+                eventWalletService.enroll(new EventWallet(userIds.get(0), closed.getEvent_id())));
+    }
+
+    @Test
+    public void testFlashSaleInventoryDoesNotOversell() throws Exception {
+        User creator = new User();
+        creator.setName("Organizador Relâmpago");
+        creator.setEmail("flash@example.com");
+        creator = userService.createUser(creator);
+        Event e = new Event();
+        e.setCreator_id(creator.getId());
+        e.setEvent_name("Venda Relâmpago");
+        e.setIs_EAD(true);
+        e.setLot_quantity(5);
+        e.setEvent_date(LocalDateTime.now().plusDays(5));
+        e = eventService.createEvent(e);
+        final Long eventId = e.getEvent_id();
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User u = new User();
+            u.setName("Relâmpago " + i);
+            u.setEmail("relampago" + i + "@example.com");
+            userIds.add(userService.createUser(u).getId());
+        }
+        // um inscrito antes da ativação ocupa uma das 5 vagas
+        assertEquals(EnrollmentStatus.ENROLLED, eventWalletService.enroll(new EventWallet(userIds.get(0), eventId)));
+
+        seatInventory.activate(eventId);
+        try {
+            assertEquals(4L, seatInventory.remaining(eventId));
+            assertEquals(EnrollmentStatus.DUPLICATE,
+                    eventWalletService.enroll(new EventWallet(userIds.get(0), eventId)));
+
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            List<Future<EnrollmentStatus>> results = new ArrayList<>();
+            for (Long uid : userIds.subList(1, userIds.size())) {
+                results.add(pool.submit(() -> eventWalletService.enroll(new EventWallet(uid, eventId))));
+            }
+            Map<EnrollmentStatus, Integer> count = new EnumMap<>(EnrollmentStatus.class);
+            for (Future<EnrollmentStatus> r : results) count.merge(r.get(), 1, Integer::sum);
+            pool.shutdown();
+            assertEquals(4, count.get(EnrollmentStatus.ENROLLED));
+            assertEquals(15, count.get(EnrollmentStatus.SOLD_OUT));
+
+            // concessões aplicadas em lote no banco
+            seatInventory.flush();
+            assertEquals(5, eventService.findById(eventId).getQuantity());
+            List<Long> enrolled = userIds.stream()
+                    .filter(uid -> !eventWalletService.listByUser(uid).isEmpty()).toList();
+            assertEquals(5, enrolled.size());
+
+            // cancelar devolve a vaga no banco e em memória
+            eventWalletService.removeLink(enrolled.get(1), eventId);
+            assertEquals(1L, seatInventory.remaining(eventId));
+            assertEquals(4, eventService.findById(eventId).getQuantity());
+        } finally {
+            seatInventory.deactivate(eventId);
+        }
+        assertFalse(seatInventory.handles(eventId));
+    }
+
+    @Test
+    public void testWaitingRoomAdmitsInOrder() {
+        final Long eventId = 424242L;
+        // evento sem fila: admitido direto, sem senha
+        assertTrue(waitingRoom.join("direto@example.com", eventId).isAdmitted());
+
+        waitingRoom.open(eventId);
+        try {
+            // burst inicial (50) admitido na hora; os seguintes esperam na ordem de chegada
+            List<QueueStatus> queue = new ArrayList<>();
+            for (int i = 0; i < 60; i++) queue.add(waitingRoom.join("fila" + i + "@example.com", eventId));
+            assertTrue(queue.get(0).isAdmitted());
+            QueueStatus last = queue.get(59);
+            assertFalse(last.isAdmitted());
+            assertTrue(last.getPosition() > 0 && last.getRetryAfterSeconds() >= 1);
+
+            // entrar de novo devolve a mesma senha (mesma posição); a senha vale só para o dono e o evento
+            assertEquals(last.getPosition(), waitingRoom.join("fila59@example.com", eventId).getPosition(), 1);
+            assertEquals(last.getToken(),
+                    waitingRoom.status(last.getToken(), "fila59@example.com", eventId).getToken());
+            assertThrows(IllegalArgumentException.class,
+                    () -> waitingRoom.status(last.getToken(), "outro@example.com", eventId));
+            assertThrows(IllegalArgumentException.class, () -> waitingRoom.status(null, "fila0@example.com", eventId));
+            waitingRoom.open(eventId + 1);
+            assertThrows(IllegalArgumentException.class,
+                    () -> waitingRoom.status(last.getToken(), "fila59@example.com", eventId + 1));
+        } finally {
+            waitingRoom.close(eventId);
+            waitingRoom.close(eventId + 1);
+        }
+        assertFalse(waitingRoom.guards(eventId));
+
+        // inscrição com fila: só o próprio usuário, uma vez por senha, e nenhuma sem senha
+        User owner = new User();
+        owner.setName("Dono da Senha");
+        owner.setEmail("senha@example.com");
+        owner = userService.createUser(owner);
+        User other = new User();
+        other.setName("Carona");
+        other.setEmail("carona@example.com");
+        other = userService.createUser(other);
+        Event e = newEvent(owner.getId(), "Evento Com Fila", 6);
+        final Long guarded = e.getEvent_id();
+        final Long ownerId = owner.getId();
+        final Long otherId = other.getId();
+        waitingRoom.open(guarded);
+        try {
+            // sem senha: 400 que não fica guardado no Idempotency-Key; com a senha, a mesma chave inscreve
+            BffApplication.EventWalletBffController bff =
+                    new BffApplication.EventWalletBffController(eventWalletService, waitingRoom, idempotentRequests);
+            assertEquals(400, bff.addLink(new EventWallet(otherId, guarded), () -> "carona@example.com", null, "k-fila")
+                    .getStatusCode().value());
+            String otherToken = waitingRoom.join("carona@example.com", guarded).getToken();
+            assertEquals(201, bff.addLink(new EventWallet(otherId, guarded), () -> "carona@example.com", otherToken, "k-fila")
+                    .getStatusCode().value());
+
+            String token = waitingRoom.join("senha@example.com", guarded).getToken();
+            assertThrows(IllegalArgumentException.class,
+                    () -> eventWalletService.enroll(new EventWallet(otherId, guarded), "senha@example.com", token));
+            assertThrows(IllegalArgumentException.class,
+                    () -> eventWalletService.addLink(new EventWallet(otherId, guarded)));
+            assertEquals(EnrollmentStatus.ENROLLED,
+                    eventWalletService.enroll(new EventWallet(ownerId, guarded), "senha@example.com", token));
+            // senha consumida: usar de novo falha e entrar de novo emite outra senha
+            assertThrows(IllegalArgumentException.class,
+                    () -> eventWalletService.enroll(new EventWallet(ownerId, guarded), "senha@example.com", token));
+            assertFalse(token.equals(waitingRoom.join("senha@example.com", guarded).getToken()));
+        } finally {
+            waitingRoom.close(guarded);
+        }
+    }
+
+    @Test
+    public void testIdempotencyKeyReplaysEnrollment() {
+        User u = new User();
+        u.setName("Rede Instável");
+        u.setEmail("retry@example.com");
+        u = userService.createUser(u);
+        Event e = newEvent(u.getId(), "Evento Reenvio", 4);
+        EventWallet ew = new EventWallet(u.getId(), e.getEvent_id());
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<ResponseEntity<?>> enroll = () -> {
+            runs.incrementAndGet();
+            EnrollmentStatus status = eventWalletService.enroll(new EventWallet(ew.getUserId(), ew.getEventId()));
+            return status == EnrollmentStatus.ENROLLED
+                    ? ResponseEntity.status(HttpStatus.CREATED).header(HttpHeaders.LOCATION, "/inscricao/1").body(ew)
+                    : ResponseEntity.status(HttpStatus.CONFLICT).body(status.getMessage());
+        };
+
+        // o reenvio repete o 201 original em vez de "Vínculo já existente"
+        ResponseEntity<?> first = idempotentRequests.execute("POST /test", "retry@example.com", "k-1", ew, enroll);
+        ResponseEntity<?> retry = idempotentRequests.execute("POST /test", "retry@example.com", "k-1", ew, enroll);
+        assertEquals(201, first.getStatusCode().value());
+        assertEquals(201, retry.getStatusCode().value());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER));
+        assertEquals("/inscricao/1", retry.getHeaders().getFirst(HttpHeaders.LOCATION));
+        assertEquals(1, runs.get());
+
+        // mesma chave com outro corpo: 422; a chave de outro usuário é outra entrada
+        EventWallet other = new EventWallet(u.getId(), e.getEvent_id() + 1);
+        assertEquals(422, idempotentRequests.execute("POST /test", "retry@example.com", "k-1", other, enroll)
+                .getStatusCode().value());
+        assertEquals(409, idempotentRequests.execute("POST /test", "outro@example.com", "k-1", ew, enroll)
+                .getStatusCode().value());
+        assertEquals(2, runs.get());
+
+        // erro 5xx não é guardado: o reenvio executa de novo
+        AtomicInteger failures = new AtomicInteger();
+        Supplier<ResponseEntity<?>> failing = () -> {
+            failures.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("falhou");
+        };
+        idempotentRequests.execute("POST /test", "retry@example.com", "k-2", ew, failing);
+        idempotentRequests.execute("POST /test", "retry@example.com", "k-2", ew, failing);
+        assertEquals(2, failures.get());
+    }
+
+    private Event newEvent(Long creatorId, String name, int days) {
+        Event e = new Event();
+        e.setCreator_id(creatorId);
+        e.setEvent_name(name);
+        e.setIs_EAD(true);
+        e.setEvent_date(LocalDateTime.now().plusDays(days));
+        return eventService.createEvent(e);
+    }
 }
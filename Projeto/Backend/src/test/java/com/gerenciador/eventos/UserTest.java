@@ -1,11 +1,14 @@
 package com.gerenciador.eventos;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -15,6 +18,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import com.gerenciador.eventos.POJO.User;
 import com.gerenciador.eventos.Service.UserService;
@@ -208,6 +212,84 @@ public class UserTest {
     assertTrue(exception.getMessage().contains("Telefone já existente"));
     }
 
+    // Sem consulta prévia: as constraints UNIQUE de users decidem, inclusive no update
+    @Test
+    public void testUniqueEmailConstraintMessage() {
+        User first = new User();
+        first.setName("Primeiro");
+        first.setEmail("primeiro@example.com");
+        first.setFone("555.000.111-11");
+        userService.createUser(first);
+        User second = new User();
+        second.setName("Segundo");
+        second.setEmail("segundo@example.com");
+        second.setFone("555.000.222-22");
+        second = userService.createUser(second);
+
+        second.setEmail("primeiro@example.com");
+        User duplicate = second;
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> userService.updateUser(duplicate));
+        assertEquals("Email já existente: primeiro@example.com", ex.getMessage()); // Users_email_key
+    }
+
+    @Test
+    public void testUniqueFoneConstraintMessage() {
+        User first = new User();
+        first.setName("Primeiro");
+        first.setEmail("primeiro@example.com");
+        first.setFone("555.000.111-22");
+        userService.createUser(first);
+        User second = new User();
+        second.setName("Segundo");
+        second.setEmail("segundo@example.com");
+        second.setFone("555.000.222-22");
+        second = userService.createUser(second);
+
+        second.setFone("555.000.111-22");
+        User duplicate = second;
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> userService.updateUser(duplicate));
+        assertEquals("Telefone já existente: 555.000.111-22", ex.getMessage()); // Users_fone_key
+    }
+
+    @Test
+    public void testUniqueNameConstraintMessage() {
+        User first = new User();
+        first.setName("Primeiro");
+        first.setEmail("primeiro@example.com");
+        first.setFone("555.000.111-11");
+        userService.createUser(first);
+        User second = new User();
+        second.setName("Segundo");
+        second.setEmail("segundo@example.com");
+        second.setFone("555.000.222-22");
+        second = userService.createUser(second);
+
+        second.setName("Primeiro");
+        User duplicate = second;
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> userService.updateUser(duplicate));
+        assertEquals("Nome já existente: Primeiro", ex.getMessage()); // Users_user_name_key
+        assertEquals("Segundo", userService.findById(duplicate.getId()).getName());
+    }
+
+    @Test
+    public void testFindByEmailAfterEmailChange() {
+        User user = new User();
+        user.setName("Troca Email");
+        user.setEmail("antigo@example.com");
+        user.setFone("555.000.333-33");
+        user = userService.createUser(user);
+        // popula o índice de email e o cache por id
+        assertEquals(user.getId(), userService.findByEmail("antigo@example.com").getId());
+
+        user.setEmail("novo@example.com");
+        userService.updateUser(user);
+        assertThrows(RuntimeException.class, () -> userService.findByEmail("antigo@example.com"));
+        assertEquals(user.getId(), userService.findByEmail("novo@example.com").getId());
+    }
+
     @Test
     public void testSuccessfulUserCreation() {
         // Teste de criação bem-sucedida
@@ -234,4 +316,52 @@ public class UserTest {
             fail("Erro ao verificar banco: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLoginAfterPasswordChange() {
+        User user = new User();
+        user.setName("Login User");
+        user.setEmail("login@example.com");
+        user.setPassword("senhaAntiga");
+        user = userService.createUser(user);
+
+        // leitura cacheada não expõe o hash
+        assertNull(userService.findByEmail("login@example.com").getPassword());
+        assertNotNull(userService.login("login@example.com", "senhaAntiga"));
+
+        assertTrue(userService.changePassword(user.getId(), "senhaAntiga", "senhaNova"));
+        assertNull(userService.login("login@example.com", "senhaAntiga"));
+        assertNotNull(userService.login("login@example.com", "senhaNova"));
+        assertEquals("Login User", userService.findById(user.getId()).getName());
+    }
+
+    @Test
+    public void testLoginRehashesOutdatedCost() throws SQLException {
+        User user = new User();
+        user.setName("Rehash User");
+        user.setEmail("rehash@example.com");
+        user.setPassword("senhaRehash");
+        user = userService.createUser(user);
+
+        // simula um hash antigo gerado com custo menor
+        String oldHash = new BCryptPasswordEncoder(4).encode("senhaRehash");
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE users SET password = ? WHERE user_id = ?")) {
+            stmt.setString(1, oldHash);
+            stmt.setLong(2, user.getId());
+            stmt.executeUpdate();
+        }
+
+        assertNotNull(userService.login("rehash@example.com", "senhaRehash"));
+
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT password FROM users WHERE user_id = ?")) {
+            stmt.setLong(1, user.getId());
+            ResultSet rs = stmt.executeQuery();
+            assertTrue(rs.next());
+            String stored = rs.getString(1);
+            assertTrue(stored.startsWith("$2a$10$"), "hash deveria ter sido refeito com o custo atual: " + stored);
+        }
+        assertNotNull(userService.login("rehash@example.com", "senhaRehash"));
+    }
+}
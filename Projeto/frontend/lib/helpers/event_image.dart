@@ -0,0 +1,116 @@
+import 'dart:convert';
+import 'dart:ui' as ui;
+
+import 'package:flutter/material.dart';
+
+/// Imagem de um evento nas listas: desenha na hora a prévia que vem no próprio JSON
+/// (`image_placeholder`) e troca pela imagem de verdade (`?size=`) quando ela chega.
+///
+/// Prévia (base64): [R, G, B médios, largura, altura, pixels RGB linha a linha], até 4x4 pixels.
+/// Sem prévia o evento não tem imagem e nenhuma requisição é feita.
+class EventImage extends StatelessWidget {
+  final dynamic eventId;
+  final String? placeholder;
+  final String size; // thumb | card | full
+  final double? width;
+  final double height;
+
+  const EventImage({
+    super.key,
+    required this.eventId,
+    required this.placeholder,
+    required this.size,
+    this.width,
+    required this.height,
+  });
+
+  @override
+  Widget build(BuildContext context) {
+    final preview = _Preview.parse(placeholder);
+    if (eventId == null || preview == null) {
+      return Container(
+        width: width,
+        height: height,
+        color: Colors.grey[300],
+        child: const Icon(Icons.event, size: 40, color: Colors.grey),
+      );
+    }
+    return SizedBox(
+      width: width,
+      height: height,
+      child: Stack(
+        fit: StackFit.expand,
+        children: [
+          preview.build(),
+          Image.network(
+            '/api/bff/events/$eventId/image?size=$size',
+            width: width,
+            height: height,
+            fit: BoxFit.cover,
+            // aparece por cima da prévia assim que o primeiro frame decodifica
+            frameBuilder: (context, child, frame, wasSynchronouslyLoaded) {
+              if (wasSynchronouslyLoaded) return child;
+              return AnimatedOpacity(
+                opacity: frame == null ? 0 : 1,
+                duration: const Duration(milliseconds: 200),
+                child: child,
+              );
+            },
+            // falhou: fica a prévia
+            errorBuilder: (context, error, stackTrace) => const SizedBox.shrink(),
+          ),
+        ],
+      ),
+    );
+  }
+}
+
+class _Preview {
+  final Color average;
+  final int width;
+  final int height;
+  final List<Color> pixels;
+
+  _Preview(this.average, this.width, this.height, this.pixels);
+
+  static _Preview? parse(String? placeholder) {
+    if (placeholder == null || placeholder.isEmpty) return null;
+    try {
+      final bytes = base64.decode(placeholder);
+      final w = bytes[3];
+      final h = bytes[4];
+      if (w == 0 || h == 0 || bytes.length < 5 + w * h * 3) return null;
+      final pixels = <Color>[
+        for (int i = 5; i < 5 + w * h * 3; i += 3) Color.fromARGB(255, bytes[i], bytes[i + 1], bytes[i + 2]),
+      ];
+      return _Preview(Color.fromARGB(255, bytes[0], bytes[1], bytes[2]), w, h, pixels);
+    } catch (_) {
+      return null;
+    }
+  }
+
+  /// Grade de blocos com desfoque: lembra a imagem sem nenhum download
+  Widget build() {
+    return ClipRect(
+      child: Container(
+        color: average,
+        child: ImageFiltered(
+          imageFilter: ui.ImageFilter.blur(sigmaX: 12, sigmaY: 12, tileMode: TileMode.clamp),
+          child: Column(
+            children: [
+              for (int y = 0; y < height; y++)
+                Expanded(
+                  child: Row(
+                    children: [
+                      for (int x = 0; x < width; x++)
+                        Expanded(child: ColoredBox(color: pixels[y * width + x])),
+                    ],
+                  ),
+                ),
+            ],
+          ),
+        ),
+      ),
+    );
+  }
+}
@@ -9,6 +9,7 @@
 // - setToken(token, persist): Salva token (persistente se persist=true)
 // - clearToken(): Remove token (logout)
 // - jsonHeaders(): Retorna headers HTTP com Authorization Bearer
+// - newIdempotencyKey(): Chave para o header Idempotency-Key dos POSTs reenviáveis
 // 
 // Comportamento:
 // - Se "Lembrar de mim" = true: token persiste após refresh (localStorage)
@@ -16,6 +17,8 @@
 // ==============================================================================
 
 // Utilitário para JWT no frontend com persistência
+import 'dart:math';
+
 import 'package:shared_preferences/shared_preferences.dart';
 
 class ApiAuth {
@@ -73,6 +76,13 @@ class ApiAuth {
 
   static String? get token => _token;
 
+  /// Chave aleatória para Idempotency-Key: a mesma chave em todas as tentativas de um envio faz o
+  /// servidor repetir a resposta original em vez de executar de novo; gere outra depois de uma resposta.
+  static String newIdempotencyKey() {
+    final random = Random.secure();
+    return List.generate(16, (_) => random.nextInt(256).toRadixString(16).padLeft(2, '0')).join();
+  }
+
   static Map<String, String> jsonHeaders({Map<String, String>? extra}) {
     final headers = <String, String>{'Content-Type': 'application/json'};
     if (_token != null && _token!.isNotEmpty) {
@@ -46,6 +46,8 @@ class _CreateEventScreenState extends State<CreateEventScreen> {
   bool _hasChanges = false;
   bool _isEAD = false;
   String _paymentType = 'Gratuito';
+  // mesma chave enquanto o envio não tiver resposta (reenvio após falha de rede não cria outro evento)
+  String _idempotencyKey = ApiAuth.newIdempotencyKey();
 
   @override
   void initState() {
@@ -175,9 +177,10 @@ class _CreateEventScreenState extends State<CreateEventScreen> {
       try {
         final response = await http.post(
           Uri.parse('/api/bff/events'),
-          headers: ApiAuth.jsonHeaders(),
+          headers: ApiAuth.jsonHeaders(extra: {'Idempotency-Key': _idempotencyKey}),
           body: jsonEncode(eventData),
         );
+        _idempotencyKey = ApiAuth.newIdempotencyKey();
 
         print('📥 Resposta do servidor: ${response.statusCode}');
         if (response.statusCode >= 400) {
@@ -199,7 +199,6 @@ class _EditEventScreenState extends State<EditEventScreen> {
         'description': _descriptionController.text,
         'is_EAD': _isEAD,
         'creator_id': user['user_id'],
-        'quantity': widget.event['quantity'] ?? 0,
         'lot_quantity': _isEAD ? null : (_capacityController.text.isNotEmpty ? int.tryParse(_capacityController.text) : null),
         'price': _paymentType == 'Gratuito' ? 0.0 : (double.tryParse(_priceController.text) ?? 0.0),
         'presenters': widget.event['presenters'] ?? [],
@@ -6,11 +6,10 @@
 // Funcionalidades:
 // - Duas abas (Tabs):
 //   1. "Inscritos": Eventos nos quais o usuário está inscrito
-//      • Lista via API /api/bff/event-wallets/user/{userId}
 //      • Opção de cancelar inscrição
 //   2. "Criados": Eventos criados pelo usuário
-//      • Lista via API /api/bff/events?creator_id={userId}
 //      • Visualização de participantes inscritos
+// - As duas listas vêm de uma só chamada: /api/bff/events/user/{userId} (paginada por cursor)
 // - Carregamento assíncrono de dados
 // - Tratamento de estados (loading, erro, vazio)
 // - Cards com informações de cada evento
@@ -26,6 +25,7 @@ import 'dart:convert';
 import 'telaEdicaoEvento.dart';
 import 'telaPrincipal.dart';
 import 'modals.dart';
+import '../helpers/event_image.dart';
 
 class ManageEventsScreen extends StatefulWidget {
   const ManageEventsScreen({super.key});
@@ -78,47 +78,35 @@ class _ManageEventsScreenState extends State<ManageEventsScreen> {
     final userId = user['user_id'];
     print('📋 Buscando eventos para userId: $userId');
 
-    // Enrolled
-    print('📡 Buscando eventos inscritos...');
-    final enrolledResponse = await http.get(
-      Uri.parse('/api/bff/event-wallets/user/$userId'),
-      headers: ApiAuth.jsonHeaders(),
-    );
-    print('📥 Resposta eventos inscritos: ${enrolledResponse.statusCode}');
-    
-    if (enrolledResponse.statusCode == 200) {
-      final wallets = jsonDecode(enrolledResponse.body) as List;
-      print('✅ Encontrados ${wallets.length} eventos inscritos');
-      List<Map<String, dynamic>> events = [];
-      for (var wallet in wallets) {
-        final eventResponse = await http.get(
-          Uri.parse('/api/bff/events/${wallet['eventId']}'),
-          headers: ApiAuth.jsonHeaders(),
-        );
-        if (eventResponse.statusCode == 200) {
-          events.add(jsonDecode(eventResponse.body));
-        }
+    // Inscritos e criados numa só chamada (uma consulta no backend, sem imagem); segue o cursor
+    // só quando o usuário tem mais eventos que uma página
+    print('📡 Buscando eventos do usuário...');
+    final List<Map<String, dynamic>> enrolled = [];
+    final List<Map<String, dynamic>> created = [];
+    String? cursor;
+    do {
+      final query = cursor == null ? 'limit=100' : 'limit=100&cursor=$cursor';
+      final response = await http.get(
+        Uri.parse('/api/bff/events/user/$userId?$query'),
+        headers: ApiAuth.jsonHeaders(),
+      );
+      print('📥 Resposta eventos do usuário: ${response.statusCode}');
+      if (response.statusCode != 200) return;
+      final page = jsonDecode(response.body) as Map<String, dynamic>;
+      for (final item in page['items'] as List) {
+        final event = item['event'] as Map<String, dynamic>;
+        if (item['enrolled'] == true) enrolled.add(event);
+        if (item['created'] == true) created.add(event);
       }
-      setState(() {
-        enrolledEvents = events;
-      });
-    }
+      cursor = page['nextCursor'];
+    } while (cursor != null);
 
-    // Created
-    print('📡 Buscando eventos criados...');
-    final createdResponse = await http.get(
-      Uri.parse('/api/bff/events?creator_id=$userId'),
-      headers: ApiAuth.jsonHeaders(),
-    );
-    print('📥 Resposta eventos criados: ${createdResponse.statusCode}');
-    
-    if (createdResponse.statusCode == 200) {
-      final createdList = jsonDecode(createdResponse.body) as List;
-      print('✅ Encontrados ${createdList.length} eventos criados');
-      setState(() {
-        createdEvents = createdList.cast<Map<String, dynamic>>();
-      });
-    }
+    print('✅ Encontrados ${enrolled.length} eventos inscritos e ${created.length} criados');
+    if (!mounted) return;
+    setState(() {
+      enrolledEvents = enrolled;
+      createdEvents = created;
+    });
   }
 
   void _showDetailsDialog(BuildContext context, Map<String, dynamic> event) {
@@ -318,12 +306,12 @@ class _ManageEventsScreenState extends State<ManageEventsScreen> {
                 elevation: 2.0,
                 margin: const EdgeInsets.symmetric(vertical: 8.0),
                 child: ListTile(
-                  leading: Image.network(
-                    event['imageUrl'] ?? 'https://i.imgur.com/error.png',
+                  leading: EventImage(
+                    eventId: event['event_id'],
+                    placeholder: event['image_placeholder'],
+                    size: 'thumb',
                     width: 60,
                     height: 60,
-                    fit: BoxFit.cover,
-                    errorBuilder: (context, error, stackTrace) => const Icon(Icons.error),
                   ),
                   title: Text(event['event_name']),
                   subtitle: Column(
@@ -368,12 +356,12 @@ class _ManageEventsScreenState extends State<ManageEventsScreen> {
                 elevation: 2.0,
                 margin: const EdgeInsets.symmetric(vertical: 8.0),
                 child: ListTile(
-                  leading: Image.network(
-                    event['imageUrl'] ?? 'https://i.imgur.com/error.png',
+                  leading: EventImage(
+                    eventId: event['event_id'],
+                    placeholder: event['image_placeholder'],
+                    size: 'thumb',
                     width: 60,
                     height: 60,
-                    fit: BoxFit.cover,
-                    errorBuilder: (context, error, stackTrace) => const Icon(Icons.error),
                   ),
                   title: Text(event['event_name']),
                   subtitle: Column(
@@ -27,6 +27,7 @@ import 'dart:convert';
 import 'telaLogin.dart'; // corrigido caminho relativo
 import 'telaPesquisarEvento.dart'; // SearchEventScreen
 import 'telaCriacaoEvento.dart'; // CreateEventScreen
+import '../helpers/event_image.dart';
 
 // 1. DATA_MODEL
 class HomePageData extends ChangeNotifier {
@@ -244,12 +245,13 @@ class _MainContentCard extends StatelessWidget {
               child: Column(
                 crossAxisAlignment: CrossAxisAlignment.start,
                 children: [
-                  if (e['imageUrl'] != null)
-                    Image.network(
-                      e['imageUrl'],
+                  if (e['image_placeholder'] != null)
+                    EventImage(
+                      eventId: e['event_id'],
+                      placeholder: e['image_placeholder'],
+                      size: 'card',
                       height: 150,
                       width: double.infinity,
-                      fit: BoxFit.cover,
                     ),
                   Padding(
                     padding: const EdgeInsets.all(16.0),
@@ -7,6 +7,7 @@
 // - Exibição de detalhes do evento selecionado
 // - Busca de detalhes do evento via API se necessário
 // - Verificação de autenticação do usuário
+// - Fila de espera em eventos disputados (/api/bff/event-wallets/queue/{id})
 // - Criação de inscrição via API (/api/bff/event-wallets)
 // - Associação automática usuário-evento (userId + eventId)
 // - SnackBars para feedback de sucesso/erro
@@ -43,6 +44,9 @@ class _EventRegistrationScreenState extends State<EventRegistrationScreen> {
   Map<String, dynamic>? _eventData;
   bool _isLoading = false;
   String? _errorMessage;
+  int? _queuePosition; // pessoas à frente na fila de espera (null = fora da fila)
+  // mesma chave enquanto o envio não tiver resposta (reenvio após falha de rede repete o 201 original)
+  String _idempotencyKey = ApiAuth.newIdempotencyKey();
 
   @override
   void initState() {
@@ -113,6 +117,25 @@ class _EventRegistrationScreenState extends State<EventRegistrationScreen> {
     return DateFormat('dd/MM/yyyy \'às\' HH:mm').format(date);
   }
 
+  /// Entra na fila de espera do evento e consulta no intervalo sugerido até ser admitido.
+  /// Devolve a senha a enviar na inscrição (null quando o evento não tem fila).
+  Future<String?> _waitForTurn(dynamic eventId) async {
+    final queueUri = Uri.parse('/api/bff/event-wallets/queue/$eventId');
+    var response = await http.post(queueUri, headers: ApiAuth.jsonHeaders());
+    while (true) {
+      if (response.statusCode != 200) {
+        throw Exception('Fila de espera indisponível (${response.statusCode})');
+      }
+      final status = jsonDecode(utf8.decode(response.bodyBytes));
+      final String? token = status['token'];
+      if (status['admitted'] == true || token == null || !mounted) return token;
+      setState(() => _queuePosition = status['position']);
+      await Future.delayed(Duration(seconds: status['retryAfterSeconds'] ?? 5));
+      if (!mounted) return token;
+      response = await http.get(queueUri, headers: ApiAuth.jsonHeaders(extra: {'X-Queue-Token': token}));
+    }
+  }
+
   Future<void> _submitRegistration(BuildContext context) async {
     if (_eventData == null) return;
     
@@ -135,13 +158,22 @@ class _EventRegistrationScreenState extends State<EventRegistrationScreen> {
     };
 
     try {
+      // eventos disputados: aguarda a vez na fila antes de pedir a vaga
+      final queueToken = await _waitForTurn(_eventData!['event_id']);
+      if (!mounted) return;
+      setState(() => _queuePosition = null);
+
       // Usar ApiAuth para enviar o header Authorization corretamente
-      final headers = ApiAuth.jsonHeaders();
+      final headers = ApiAuth.jsonHeaders(extra: {
+        'Idempotency-Key': _idempotencyKey,
+        if (queueToken != null) 'X-Queue-Token': queueToken,
+      });
       final response = await http.post(
         Uri.parse('/api/bff/event-wallets'),
         headers: headers,
         body: jsonEncode(enrollment),
       );
+      _idempotencyKey = ApiAuth.newIdempotencyKey();
 
       if (!mounted) return;
 
@@ -157,7 +189,8 @@ class _EventRegistrationScreenState extends State<EventRegistrationScreen> {
             );
           },
         );
-      } else if (response.statusCode == 400) {
+      } else if (response.statusCode == 400 || response.statusCode == 409) {
+        // 409: já inscrito, evento lotado ou inscrições encerradas (mensagem vem no corpo)
         String errorMsg = 'Você já está inscrito neste evento ou o evento está lotado.';
         try {
           errorMsg = utf8.decode(response.bodyBytes);
@@ -178,6 +211,7 @@ class _EventRegistrationScreenState extends State<EventRegistrationScreen> {
       }
     } catch (e) {
       if (!mounted) return;
+      setState(() => _queuePosition = null);
       AppModals.showError(
         context,
         'Erro de Conexão',
@@ -264,7 +298,7 @@ class _EventRegistrationScreenState extends State<EventRegistrationScreen> {
                     ClipRRect(
                       borderRadius: const BorderRadius.vertical(top: Radius.circular(12)),
                       child: Image.network(
-                        '/api/bff/events/$eventId/image',
+                        '/api/bff/events/$eventId/image?size=full',
                         width: double.infinity,
                         height: 200,
                         fit: BoxFit.cover,
@@ -391,7 +425,7 @@ class _EventRegistrationScreenState extends State<EventRegistrationScreen> {
               children: [
                 Expanded(
                   child: ElevatedButton(
-                    onPressed: temVagas ? () => _submitRegistration(context) : null,
+                    onPressed: temVagas && _queuePosition == null ? () => _submitRegistration(context) : null,
                     style: ElevatedButton.styleFrom(
                       backgroundColor: Colors.green,
                       foregroundColor: Colors.white,
@@ -428,6 +462,35 @@ class _EventRegistrationScreenState extends State<EventRegistrationScreen> {
               ],
             ),
             
+            if (_queuePosition != null) ...[
+              const SizedBox(height: 16),
+              Container(
+                padding: const EdgeInsets.all(12),
+                decoration: BoxDecoration(
+                  color: Colors.blue[50],
+                  borderRadius: BorderRadius.circular(8),
+                  border: Border.all(color: Colors.blue),
+                ),
+                child: Row(
+                  children: [
+                    const SizedBox(
+                      width: 20,
+                      height: 20,
+                      child: CircularProgressIndicator(strokeWidth: 2),
+                    ),
+                    const SizedBox(width: 12),
+                    Expanded(
+                      child: Text(
+                        'Evento muito procurado: você está na fila de espera. '
+                        'Pessoas à sua frente: $_queuePosition',
+                        style: const TextStyle(color: Colors.blue),
+                      ),
+                    ),
+                  ],
+                ),
+              ),
+            ],
+
             if (!temVagas) ...[
               const SizedBox(height: 16),
               Container(
@@ -21,6 +21,7 @@ import 'package:shared_preferences/shared_preferences.dart';
 import 'auth.dart';
 import 'package:intl/intl.dart';
 import 'telaInscricaoEvento.dart';
+import '../helpers/event_image.dart';
 
 class SearchEventScreen extends StatefulWidget {
   const SearchEventScreen({super.key});
@@ -333,35 +334,14 @@ class _SearchEventScreenState extends State<SearchEventScreen> {
                                           // Imagem do evento
                                           ClipRRect(
                                             borderRadius: BorderRadius.circular(8.0),
-                                            child: eventId != null
-                                                ? Image.network(
-                                                    '/api/bff/events/$eventId/image',
-                                                    width: 80,
-                                                    height: 80,
-                                                    fit: BoxFit.cover,
-                                                    errorBuilder: (context, error, stackTrace) {
-                                                      return Container(
-                                                        width: 80,
-                                                        height: 80,
-                                                        color: Colors.grey[300],
-                                                        child: const Icon(
-                                                          Icons.event,
-                                                          size: 40,
-                                                          color: Colors.grey,
-                                                        ),
-                                                      );
-                                                    },
-                                                  )
-                                                : Container(
-                                                    width: 80,
-                                                    height: 80,
-                                                    color: Colors.grey[300],
-                                                    child: const Icon(
-                                                      Icons.event,
-                                                      size: 40,
-                                                      color: Colors.grey,
-                                                    ),
-                                                  ),
+                                            // prévia inline na resposta da busca; imagem só dos itens visíveis
+                                            child: EventImage(
+                                              eventId: eventId,
+                                              placeholder: event['image_placeholder'],
+                                              size: 'thumb',
+                                              width: 80,
+                                              height: 80,
+                                            ),
                                           ),
                                           const SizedBox(width: 12),
                                           
@@ -27,6 +27,7 @@ import 'telaInscricaoEvento.dart'; // EventRegistrationScreen
 import 'telaHomePage.dart'; // HomeScreen & HomePageData
 import 'telaEdicaoPerfil.dart';
 import 'telaCriacaoEvento.dart';
+import '../helpers/event_image.dart';
 import 'telaInscricaoEvento.dart'; // Importar tela de inscrição
 import 'telaHomePage.dart'; // Para deslogar
 
@@ -160,11 +161,12 @@ class _MainScreenState extends State<MainScreen> {
                 margin: const EdgeInsets.symmetric(vertical: 8.0),
                 child: Column(
                   children: <Widget>[
-                    Image.network(
-                      event['imageUrl'] ?? 'https://i.imgur.com/default.jpg',
+                    EventImage(
+                      eventId: event['event_id'],
+                      placeholder: event['image_placeholder'],
+                      size: 'card',
                       height: 150.0,
                       width: double.infinity,
-                      fit: BoxFit.cover,
                     ),
                     Padding(
                       padding: const EdgeInsets.all(16.0),